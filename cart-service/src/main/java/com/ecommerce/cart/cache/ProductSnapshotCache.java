@@ -0,0 +1,222 @@
+package com.ecommerce.cart.cache;
+
+import com.ecommerce.cart.dto.ProductBatchResult;
+import com.ecommerce.cart.dto.ProductCacheStats;
+import com.ecommerce.cart.dto.ProductSnapshot;
+import com.ecommerce.cart.resilience.DownstreamUnavailableException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Near-cache of product snapshots fetched from Product Service.
+// Fresh entries are served without a network call. Concurrent misses for the
+// same product share one in-flight request: the first caller fetches, the
+// others wait on its future. Snapshots may be up to ttl-seconds old; while
+// Product Service is unavailable, expired snapshots up to max-stale-seconds old
+// are served instead of failing the cart operation.
+@Component
+public class ProductSnapshotCache {
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Value("${product.service.url}")
+    private String productServiceUrl;
+
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, CompletableFuture<ProductSnapshot>> inFlight = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final long ttlNanos;
+    private final long maxStaleNanos;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong staleServed = new AtomicLong();
+
+    public ProductSnapshotCache(@Value("${cart.product-cache.max-size:10000}") int maxSize,
+                                @Value("${cart.product-cache.ttl-seconds:30}") long ttlSeconds,
+                                @Value("${cart.product-cache.max-stale-seconds:600}") long maxStaleSeconds) {
+        this.maxSize = maxSize;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.maxStaleNanos = TimeUnit.SECONDS.toNanos(maxStaleSeconds);
+    }
+
+    // Returns null when Product Service has no such product
+    public ProductSnapshot get(Long productId) {
+        Entry entry = entries.get(productId);
+        if (entry != null && !entry.isExpired(System.nanoTime())) {
+            hits.incrementAndGet();
+            return entry.snapshot;
+        }
+        misses.incrementAndGet();
+
+        CompletableFuture<ProductSnapshot> future = new CompletableFuture<>();
+        CompletableFuture<ProductSnapshot> existing = inFlight.putIfAbsent(productId, future);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            return join(existing);
+        }
+        try {
+            ProductSnapshot snapshot;
+            try {
+                snapshot = fetch(productId);
+                if (snapshot != null) {
+                    put(productId, snapshot);
+                }
+            } catch (RuntimeException e) {
+                snapshot = staleOrThrow(entry, e);
+            }
+            future.complete(snapshot);
+            return snapshot;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(productId, future);
+        }
+    }
+
+    // Snapshots of several products; fresh ones come from the cache, the rest from one
+    // batch request. Products Product Service does not know are absent from the result.
+    public Map<Long, ProductSnapshot> getAll(Collection<Long> productIds) {
+        Map<Long, ProductSnapshot> result = new HashMap<>();
+        Map<Long, Entry> missed = new HashMap<>();
+        long now = System.nanoTime();
+        for (Long productId : productIds) {
+            Entry entry = entries.get(productId);
+            if (entry != null && !entry.isExpired(now)) {
+                hits.incrementAndGet();
+                result.put(productId, entry.snapshot);
+            } else {
+                misses.incrementAndGet();
+                missed.put(productId, entry);
+            }
+        }
+        if (missed.isEmpty()) {
+            return result;
+        }
+        try {
+            Map<Long, ProductSnapshot> fetched = fetchAll(new ArrayList<>(missed.keySet()));
+            fetched.forEach(this::put);
+            result.putAll(fetched);
+        } catch (RuntimeException e) {
+            for (Map.Entry<Long, Entry> miss : missed.entrySet()) {
+                result.put(miss.getKey(), staleOrThrow(miss.getValue(), e));
+            }
+        }
+        return result;
+    }
+
+    public void invalidate(Long productId) {
+        entries.remove(productId);
+    }
+
+    public ProductCacheStats getStats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long lookups = hitCount + missCount;
+        double hitRate = lookups == 0 ? 0.0 : (double) hitCount / lookups;
+        return new ProductCacheStats(entries.size(), maxSize, hitCount, missCount,
+                coalesced.get(), evictions.get(), staleServed.get(), hitRate);
+    }
+
+    // Helper: Get product from Product Service
+    private ProductSnapshot fetch(Long productId) {
+        try {
+            String url = productServiceUrl + "/" + productId;
+            return restTemplate.getForObject(url, ProductSnapshot.class);
+        } catch (HttpClientErrorException.NotFound e) {
+            return null;
+        } catch (DownstreamUnavailableException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Error fetching product from Product Service: " + e.getMessage());
+        }
+    }
+
+    // Helper: Get several products from Product Service in one round trip
+    private Map<Long, ProductSnapshot> fetchAll(List<Long> productIds) {
+        try {
+            String url = productServiceUrl + "/batch";
+            ProductBatchResult response = restTemplate.postForObject(url, Map.of("ids", productIds), ProductBatchResult.class);
+            return response == null || response.getProducts() == null ? new HashMap<>() : response.getProducts();
+        } catch (DownstreamUnavailableException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Error fetching products from Product Service: " + e.getMessage());
+        }
+    }
+
+    // Helper: Fall back to the last known snapshot if it is not too old
+    private ProductSnapshot staleOrThrow(Entry entry, RuntimeException error) {
+        if (entry != null && System.nanoTime() - entry.expiresAt <= maxStaleNanos) {
+            staleServed.incrementAndGet();
+            return entry.snapshot;
+        }
+        throw error;
+    }
+
+    private void put(Long productId, ProductSnapshot snapshot) {
+        if (maxSize <= 0) {
+            return;
+        }
+        if (entries.size() >= maxSize && !entries.containsKey(productId)) {
+            makeRoom();
+        }
+        entries.put(productId, new Entry(snapshot, System.nanoTime() + ttlNanos));
+    }
+
+    // Helper: Drop expired entries, then arbitrary ones, until a tenth of the capacity is free
+    private void makeRoom() {
+        long now = System.nanoTime();
+        int target = maxSize - Math.max(1, maxSize / 10);
+        entries.values().removeIf(entry -> entry.isExpired(now));
+        Iterator<Long> ids = entries.keySet().iterator();
+        while (entries.size() > target && ids.hasNext()) {
+            ids.next();
+            ids.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    private static ProductSnapshot join(CompletableFuture<ProductSnapshot> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static final class Entry {
+        private final ProductSnapshot snapshot;
+        private final long expiresAt;
+
+        private Entry(ProductSnapshot snapshot, long expiresAt) {
+            this.snapshot = snapshot;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return now - expiresAt > 0;
+        }
+    }
+}
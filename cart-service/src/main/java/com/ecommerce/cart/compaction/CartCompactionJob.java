@@ -0,0 +1,113 @@
+package com.ecommerce.cart.compaction;
+
+import com.ecommerce.cart.dto.CompactionStats;
+import com.ecommerce.cart.repository.CartItemRepository;
+import com.ecommerce.cart.repository.CartRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Deletes carts nobody has changed for max-idle-hours, together with their items.
+// Each chunk is its own short transaction over at most chunk-size carts; carts a
+// live request holds locked are skipped and picked up by a later run. The job
+// pauses between chunks and stops after max-chunks-per-run to bound its share of
+// the database.
+@Component
+public class CartCompactionJob {
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${cart.compaction.enabled:true}")
+    private boolean enabled;
+
+    @Value("${cart.compaction.max-idle-hours:720}")
+    private long maxIdleHours;
+
+    @Value("${cart.compaction.chunk-size:200}")
+    private int chunkSize;
+
+    @Value("${cart.compaction.chunk-pause-ms:200}")
+    private long chunkPauseMs;
+
+    @Value("${cart.compaction.max-chunks-per-run:500}")
+    private int maxChunksPerRun;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong chunks = new AtomicLong();
+    private final AtomicLong deletedCarts = new AtomicLong();
+    private final AtomicLong deletedItems = new AtomicLong();
+    private volatile long lastRunDeletedCarts;
+    private volatile LocalDateTime lastRunStartedAt;
+    private volatile LocalDateTime lastRunFinishedAt;
+    private volatile String lastError;
+
+    @Scheduled(initialDelayString = "${cart.compaction.initial-delay-ms:60000}",
+               fixedDelayString = "${cart.compaction.interval-ms:3600000}")
+    public void compact() {
+        if (!enabled || !running.compareAndSet(false, true)) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(maxIdleHours);
+        long deletedThisRun = 0;
+        lastRunStartedAt = LocalDateTime.now();
+        runs.incrementAndGet();
+        try {
+            for (int chunk = 0; chunk < maxChunksPerRun; chunk++) {
+                Integer deleted = transactionTemplate.execute(status -> deleteChunk(cutoff));
+                deletedThisRun += deleted;
+                if (deleted < chunkSize) {
+                    break;
+                }
+                Thread.sleep(chunkPauseMs);
+            }
+            lastError = null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            lastError = e.getMessage();
+            System.err.println("❌ Cart compaction failed: " + e.getMessage());
+        } finally {
+            lastRunDeletedCarts = deletedThisRun;
+            lastRunFinishedAt = LocalDateTime.now();
+            running.set(false);
+        }
+        if (deletedThisRun > 0) {
+            System.out.println("✅ Cart compaction removed " + deletedThisRun + " idle carts");
+        }
+    }
+
+    public CompactionStats getStats() {
+        return new CompactionStats(enabled, running.get(), maxIdleHours, runs.get(), chunks.get(),
+                deletedCarts.get(), deletedItems.get(), lastRunDeletedCarts, lastRunStartedAt,
+                lastRunFinishedAt, lastError);
+    }
+
+    // Helper: Delete one chunk of idle carts and their items; returns the number of carts
+    private int deleteChunk(LocalDateTime cutoff) {
+        List<Long> cartIds = cartRepository.lockIdleCartIds(cutoff, chunkSize);
+        if (cartIds.isEmpty()) {
+            return 0;
+        }
+        int items = cartItemRepository.deleteAllByCartIdIn(cartIds);
+        int carts = cartRepository.deleteAllByIdIn(cartIds);
+        chunks.incrementAndGet();
+        deletedItems.addAndGet(items);
+        deletedCarts.addAndGet(carts);
+        return cartIds.size();
+    }
+}
@@ -0,0 +1,56 @@
+package com.ecommerce.cart.config;
+
+import com.ecommerce.cart.dto.HttpClientStats;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.core5.pool.PoolStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+// Latency / error counters of outgoing RestTemplate calls plus connection pool occupancy
+@Component
+public class HttpClientMetrics implements ClientHttpRequestInterceptor {
+
+    @Autowired
+    private PoolingHttpClientConnectionManager connectionManager;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body,
+                                        ClientHttpRequestExecution execution) throws IOException {
+        long started = System.nanoTime();
+        boolean failed = true;
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            failed = response.getStatusCode().is5xxServerError();
+            return response;
+        } finally {
+            long elapsed = System.nanoTime() - started;
+            requests.increment();
+            totalNanos.add(elapsed);
+            maxNanos.accumulateAndGet(elapsed, Math::max);
+            if (failed) {
+                errors.increment();
+            }
+        }
+    }
+
+    public HttpClientStats getStats() {
+        PoolStats pool = connectionManager.getTotalStats();
+        long count = requests.sum();
+        double average = count == 0 ? 0.0 : totalNanos.sum() / 1_000_000.0 / count;
+        return new HttpClientStats(pool.getLeased(), pool.getAvailable(), pool.getPending(), pool.getMax(),
+                count, errors.sum(), average, maxNanos.get() / 1_000_000.0);
+    }
+}
@@ -1,13 +1,26 @@
 package com.ecommerce.cart.controller;
 
+import com.ecommerce.cart.compaction.CartCompactionJob;
 import com.ecommerce.cart.dto.AddToCartRequest;
+import com.ecommerce.cart.dto.CartBatchRequest;
 import com.ecommerce.cart.dto.CartResponse;
+import com.ecommerce.cart.dto.CompactionStats;
+import com.ecommerce.cart.dto.DownstreamStats;
+import com.ecommerce.cart.dto.HttpClientStats;
+import com.ecommerce.cart.dto.ProductCacheStats;
+import com.ecommerce.cart.dto.RepricingRequest;
+import com.ecommerce.cart.dto.RepricingStats;
 import com.ecommerce.cart.dto.UpdateQuantityRequest;
+import com.ecommerce.cart.dto.WriteBehindStats;
+import com.ecommerce.cart.repricing.CartRepricingJob;
 import com.ecommerce.cart.service.CartService;
+import com.ecommerce.cart.store.WriteBehindCartStore;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/cart")
 public class CartController {
@@ -15,17 +28,39 @@ public class CartController {
     @Autowired
     private CartService cartService;
 
+    @Autowired
+    private WriteBehindCartStore writeBehindCartStore;
+
+    @Autowired
+    private CartCompactionJob cartCompactionJob;
+
+    @Autowired
+    private CartRepricingJob cartRepricingJob;
+
     // Add item to cart
     @PostMapping("/add")
     public ResponseEntity<CartResponse> addToCart(@RequestBody AddToCartRequest request) {
-        CartResponse response = cartService.addToCart(request);
+        CartResponse response = writeBehindCartStore.isEnabled()
+                ? writeBehindCartStore.addToCart(request)
+                : cartService.addToCart(request);
+        return ResponseEntity.ok(response);
+    }
+
+    // Apply several add / update / remove operations atomically
+    @PostMapping("/{userId}/batch")
+    public ResponseEntity<CartResponse> applyBatch(@PathVariable Long userId, @RequestBody CartBatchRequest request) {
+        CartResponse response = writeBehindCartStore.isEnabled()
+                ? writeBehindCartStore.applyBatch(userId, request.getOperations())
+                : cartService.applyBatch(userId, request.getOperations());
         return ResponseEntity.ok(response);
     }
 
     // Get cart by user ID
     @GetMapping("/{userId}")
     public ResponseEntity<CartResponse> getCart(@PathVariable Long userId) {
-        CartResponse response = cartService.getCartByUserId(userId);
+        CartResponse response = writeBehindCartStore.isEnabled()
+                ? writeBehindCartStore.getCartByUserId(userId)
+                : cartService.getCartByUserId(userId);
         return ResponseEntity.ok(response);
     }
 
@@ -35,7 +70,9 @@ public class CartController {
             @PathVariable Long userId,
             @PathVariable Long productId,
             @RequestBody UpdateQuantityRequest request) {
-        CartResponse response = cartService.updateItemQuantity(userId, productId, request.getQuantity());
+        CartResponse response = writeBehindCartStore.isEnabled()
+                ? writeBehindCartStore.updateItemQuantity(userId, productId, request.getQuantity())
+                : cartService.updateItemQuantity(userId, productId, request.getQuantity());
         return ResponseEntity.ok(response);
     }
 
@@ -44,14 +81,63 @@ public class CartController {
     public ResponseEntity<CartResponse> removeItem(
             @PathVariable Long userId,
             @PathVariable Long productId) {
-        CartResponse response = cartService.removeItemFromCart(userId, productId);
+        CartResponse response = writeBehindCartStore.isEnabled()
+                ? writeBehindCartStore.removeItemFromCart(userId, productId)
+                : cartService.removeItemFromCart(userId, productId);
         return ResponseEntity.ok(response);
     }
 
     // Clear entire cart
     @DeleteMapping("/{userId}/clear")
     public ResponseEntity<Void> clearCart(@PathVariable Long userId) {
-        cartService.clearCart(userId);
+        if (writeBehindCartStore.isEnabled()) {
+            writeBehindCartStore.clearCart(userId);
+        } else {
+            cartService.clearCart(userId);
+        }
         return ResponseEntity.noContent().build();
     }
-}
\ No newline at end of file
+
+    // Product near-cache hit/miss counters
+    @GetMapping("/product-cache/stats")
+    public ResponseEntity<ProductCacheStats> getProductCacheStats() {
+        return ResponseEntity.ok(cartService.getProductCacheStats());
+    }
+
+    // Connection pool occupancy and Product Service call latency
+    @GetMapping("/http-client/stats")
+    public ResponseEntity<HttpClientStats> getHttpClientStats() {
+        return ResponseEntity.ok(cartService.getHttpClientStats());
+    }
+
+    // Circuit breaker and bulkhead state of each downstream
+    @GetMapping("/resilience/stats")
+    public ResponseEntity<List<DownstreamStats>> getDownstreamStats() {
+        return ResponseEntity.ok(cartService.getDownstreamStats());
+    }
+
+    // In-memory cart store occupancy and flush counters
+    @GetMapping("/write-behind/stats")
+    public ResponseEntity<WriteBehindStats> getWriteBehindStats() {
+        return ResponseEntity.ok(writeBehindCartStore.getStats());
+    }
+
+    // Reprice cart items after product price / availability changes; runs in the background
+    @PostMapping("/repricing")
+    public ResponseEntity<RepricingStats> repriceCarts(@RequestBody RepricingRequest request) {
+        cartRepricingJob.submit(request.getChanges());
+        return ResponseEntity.accepted().body(cartRepricingJob.getStats());
+    }
+
+    // Queue length and progress of cart repricing
+    @GetMapping("/repricing/stats")
+    public ResponseEntity<RepricingStats> getRepricingStats() {
+        return ResponseEntity.ok(cartRepricingJob.getStats());
+    }
+
+    // Progress of the abandoned-cart compaction job
+    @GetMapping("/compaction/stats")
+    public ResponseEntity<CompactionStats> getCompactionStats() {
+        return ResponseEntity.ok(cartCompactionJob.getStats());
+    }
+}
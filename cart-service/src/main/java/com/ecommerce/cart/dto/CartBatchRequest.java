@@ -0,0 +1,12 @@
+package com.ecommerce.cart.dto;
+
+import lombok.*;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartBatchRequest {
+    // Applied in order, all or nothing
+    private List<CartOperation> operations;
+}
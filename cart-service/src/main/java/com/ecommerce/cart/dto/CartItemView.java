@@ -0,0 +1,6 @@
+package com.ecommerce.cart.dto;
+
+// Read-only cart line returned by the cart endpoints
+public record CartItemView(Long id, Long productId, String productName, Double productPrice,
+                           Boolean productAvailable, Integer quantity, Double subtotal) {
+}
@@ -0,0 +1,14 @@
+package com.ecommerce.cart.dto;
+
+import com.ecommerce.cart.enums.CartOperationType;
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartOperation {
+    private CartOperationType type;
+    private Long productId;
+    // Quantity to add (ADD) or the new quantity (UPDATE); ignored for REMOVE
+    private Integer quantity;
+}
@@ -1,6 +1,5 @@
 package com.ecommerce.cart.dto;
 
-import com.ecommerce.cart.entity.CartItem;
 import lombok.*;
 import java.util.List;
 
@@ -10,7 +9,7 @@ import java.util.List;
 public class CartResponse {
     private Long cartId;
     private Long userId;
-    private List<CartItem> items;
+    private List<CartItemView> items;
     private int totalItems;
     private double totalAmount;
 }
\ No newline at end of file
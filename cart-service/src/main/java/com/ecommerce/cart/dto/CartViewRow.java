@@ -0,0 +1,8 @@
+package com.ecommerce.cart.dto;
+
+// One row of the cart read query: the cart header plus one of its lines.
+// An empty cart yields a single row whose item columns are null.
+public record CartViewRow(Long cartId, Integer totalItems, Double totalAmount,
+                          Long itemId, Long productId, String productName, Double productPrice,
+                          Boolean productAvailable, Integer quantity, Double subtotal) {
+}
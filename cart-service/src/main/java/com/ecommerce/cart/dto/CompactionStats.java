@@ -0,0 +1,21 @@
+package com.ecommerce.cart.dto;
+
+import lombok.*;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompactionStats {
+    private boolean enabled;
+    private boolean running;
+    private long maxIdleHours;
+    private long runs;
+    private long chunks;
+    private long deletedCarts;
+    private long deletedItems;
+    private long lastRunDeletedCarts;
+    private LocalDateTime lastRunStartedAt;
+    private LocalDateTime lastRunFinishedAt;
+    private String lastError;
+}
@@ -0,0 +1,14 @@
+package com.ecommerce.cart.dto;
+
+import lombok.*;
+import java.util.List;
+import java.util.Map;
+
+// Response of Product Service's POST /products/batch
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBatchResult {
+    private Map<Long, ProductSnapshot> products;
+    private List<Long> missingIds;
+}
@@ -0,0 +1,18 @@
+package com.ecommerce.cart.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductCacheStats {
+    private int size;
+    private int maxSize;
+    private long hits;
+    private long misses;
+    private long coalesced;
+    private long evictions;
+    // Expired snapshots served because Product Service was unavailable
+    private long staleServed;
+    private double hitRate;
+}
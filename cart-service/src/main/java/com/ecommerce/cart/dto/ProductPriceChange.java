@@ -0,0 +1,12 @@
+package com.ecommerce.cart.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductPriceChange {
+    private Long productId;
+    private Double price;
+    private Boolean available;
+}
@@ -0,0 +1,14 @@
+package com.ecommerce.cart.dto;
+
+import lombok.*;
+
+// The fields of a product the cart needs, as returned by Product Service
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSnapshot {
+    private Long id;
+    private String name;
+    private Double price;
+    private Boolean available;
+}
@@ -0,0 +1,11 @@
+package com.ecommerce.cart.dto;
+
+import lombok.*;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RepricingRequest {
+    private List<ProductPriceChange> changes;
+}
@@ -0,0 +1,16 @@
+package com.ecommerce.cart.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RepricingStats {
+    private int pendingChanges;
+    private long submittedChanges;
+    private long processedChanges;
+    private long failedChanges;
+    private long repricedItems;
+    private long chunks;
+    private String lastError;
+}
@@ -0,0 +1,14 @@
+package com.ecommerce.cart.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WriteBehindStats {
+    private boolean enabled;
+    private int cachedCarts;
+    private int dirtyCarts;
+    private long flushedCarts;
+    private long failedFlushes;
+}
@@ -7,7 +7,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "carts")
+@Table(name = "carts", indexes = {
+        @Index(name = "idx_carts_updated_at", columnList = "updated_at")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -22,6 +24,13 @@ public class Cart {
     @OneToMany(mappedBy = "cart", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<CartItem> items = new ArrayList<>();
 
+    // Maintained incrementally by CartRepository.addToTotals; never written from the entity
+    @Column(name = "total_items", nullable = false, updatable = false)
+    private Integer totalItems = 0;
+
+    @Column(name = "total_amount", nullable = false, updatable = false)
+    private Double totalAmount = 0.0;
+
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
@@ -39,17 +48,4 @@ public class Cart {
         updatedAt = LocalDateTime.now();
     }
 
-    // Calculate total cart amount
-    public double getTotalAmount() {
-        return items.stream()
-                .mapToDouble(CartItem::getSubtotal)
-                .sum();
-    }
-
-    // Get total items count
-    public int getTotalItems() {
-        return items.stream()
-                .mapToInt(CartItem::getQuantity)
-                .sum();
-    }
 }
\ No newline at end of file
@@ -5,7 +5,11 @@ import lombok.*;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 
 @Entity
-@Table(name = "cart_items")
+@Table(name = "cart_items", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_cart_items_cart_product", columnNames = {"cart_id", "product_id"})
+}, indexes = {
+        @Index(name = "idx_cart_items_product_cart", columnList = "product_id, cart_id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -28,6 +32,10 @@ public class CartItem {
     @Column(name = "product_price", nullable = false)
     private Double productPrice;
 
+    // Cleared when Product Service reports the product unavailable after it was added
+    @Column(name = "product_available", columnDefinition = "boolean not null default true")
+    private Boolean productAvailable = true;
+
     @Column(nullable = false)
     private Integer quantity;
 
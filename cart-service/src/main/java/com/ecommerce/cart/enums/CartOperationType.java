@@ -0,0 +1,7 @@
+package com.ecommerce.cart.enums;
+
+public enum CartOperationType {
+    ADD,
+    UPDATE,
+    REMOVE
+}
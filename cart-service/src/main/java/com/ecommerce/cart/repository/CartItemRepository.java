@@ -2,10 +2,53 @@ package com.ecommerce.cart.repository;
 
 import com.ecommerce.cart.entity.CartItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CartItemRepository extends JpaRepository<CartItem, Long> {
     Optional<CartItem> findByCartIdAndProductId(Long cartId, Long productId);
-}
\ No newline at end of file
+
+    List<CartItem> findByCartId(Long cartId);
+
+    // Insert the item, or add to its quantity if the cart already holds the product.
+    // The stored price of an existing item is kept.
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO cart_items (cart_id, product_id, product_name, product_price, quantity, subtotal) "
+            + "VALUES (:cartId, :productId, :productName, :productPrice, :quantity, :productPrice * :quantity) "
+            + "ON DUPLICATE KEY UPDATE subtotal = subtotal + product_price * VALUES(quantity), "
+            + "quantity = quantity + VALUES(quantity)", nativeQuery = true)
+    int upsertQuantity(@Param("cartId") Long cartId, @Param("productId") Long productId,
+                       @Param("productName") String productName, @Param("productPrice") Double productPrice,
+                       @Param("quantity") Integer quantity);
+
+    // Carts after afterCartId holding the product at a different price or availability, in id order.
+    // Callers page with the last cart id of the previous chunk, so each chunk seeks into the
+    // (product_id, cart_id) index instead of rescanning from the product's first cart.
+    @Query(value = "SELECT cart_id FROM cart_items WHERE product_id = :productId AND cart_id > :afterCartId "
+            + "AND (product_price <> :price OR product_available <> :available) ORDER BY cart_id LIMIT :limit",
+            nativeQuery = true)
+    List<Long> findStaleCartIds(@Param("productId") Long productId, @Param("afterCartId") Long afterCartId,
+                                @Param("price") Double price, @Param("available") Boolean available,
+                                @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "UPDATE cart_items SET product_price = :price, subtotal = :price * quantity, "
+            + "product_available = :available WHERE product_id = :productId AND cart_id IN (:cartIds)",
+            nativeQuery = true)
+    int repriceItems(@Param("cartIds") Collection<Long> cartIds, @Param("productId") Long productId,
+                     @Param("price") Double price, @Param("available") Boolean available);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "DELETE FROM cart_items WHERE cart_id = :cartId", nativeQuery = true)
+    int deleteAllByCartId(@Param("cartId") Long cartId);
+
+    @Modifying
+    @Query(value = "DELETE FROM cart_items WHERE cart_id IN (:cartIds)", nativeQuery = true)
+    int deleteAllByCartIdIn(@Param("cartIds") Collection<Long> cartIds);
+}
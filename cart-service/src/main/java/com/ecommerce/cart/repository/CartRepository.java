@@ -1,12 +1,93 @@
 package com.ecommerce.cart.repository;
 
+import com.ecommerce.cart.dto.CartViewRow;
 import com.ecommerce.cart.entity.Cart;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CartRepository extends JpaRepository<Cart, Long> {
     Optional<Cart> findByUserId(Long userId);
     boolean existsByUserId(Long userId);
+
+    // Carts with their items in one query, used by the write-behind store
+    @Query("SELECT DISTINCT c FROM Cart c LEFT JOIN FETCH c.items WHERE c.userId IN :userIds")
+    List<Cart> findWithItemsByUserIdIn(@Param("userIds") Collection<Long> userIds);
+
+    // Cart and lines as flat DTO rows in one query, without loading entities
+    @Query("SELECT new com.ecommerce.cart.dto.CartViewRow(c.id, c.totalItems, c.totalAmount, i.id, i.productId, "
+            + "i.productName, i.productPrice, i.productAvailable, i.quantity, i.subtotal) "
+            + "FROM Cart c LEFT JOIN c.items i WHERE c.userId = :userId ORDER BY i.id")
+    List<CartViewRow> findViewRowsByUserId(@Param("userId") Long userId);
+
+    // Row-locked read; every cart mutation takes this lock first, so statements on
+    // the cart and its items always lock in the same order
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Cart c WHERE c.userId = :userId")
+    Optional<Cart> findLockedByUserId(@Param("userId") Long userId);
+
+    // Create the user's cart unless it exists; concurrent callers cannot both insert
+    @Modifying
+    @Query(value = "INSERT INTO carts (user_id, total_items, total_amount, created_at, updated_at) "
+            + "VALUES (:userId, 0, 0, NOW(), NOW()) ON DUPLICATE KEY UPDATE user_id = user_id", nativeQuery = true)
+    int insertIfAbsent(@Param("userId") Long userId);
+
+    // Apply a change to the running totals. Clears the persistence context so the cart is re-read afterwards.
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE carts SET total_items = total_items + :items, total_amount = total_amount + :amount, "
+            + "updated_at = NOW() WHERE id = :cartId", nativeQuery = true)
+    int addToTotals(@Param("cartId") Long cartId, @Param("items") int items, @Param("amount") double amount);
+
+    // Totals change for quantity units of a product, priced at the item's stored price
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE carts SET total_items = total_items + :quantity, "
+            + "total_amount = total_amount + :quantity * (SELECT i.product_price FROM cart_items i "
+            + "WHERE i.cart_id = :cartId AND i.product_id = :productId), "
+            + "updated_at = NOW() WHERE id = :cartId", nativeQuery = true)
+    int addItemToTotals(@Param("cartId") Long cartId, @Param("productId") Long productId,
+                        @Param("quantity") int quantity);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query(value = "UPDATE carts SET total_items = 0, total_amount = 0, updated_at = NOW() WHERE id = :cartId",
+            nativeQuery = true)
+    int resetTotals(@Param("cartId") Long cartId);
+
+    // Locks up to limit carts idle since before the cutoff, skipping carts a live request holds
+    @Query(value = "SELECT id FROM carts WHERE updated_at < :cutoff ORDER BY updated_at, id LIMIT :limit "
+            + "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> lockIdleCartIds(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "DELETE FROM carts WHERE id IN (:cartIds)", nativeQuery = true)
+    int deleteAllByIdIn(@Param("cartIds") Collection<Long> cartIds);
+
+    // Row locks of several carts, taken in id order
+    @Query(value = "SELECT id FROM carts WHERE id IN (:cartIds) ORDER BY id FOR UPDATE", nativeQuery = true)
+    List<Long> lockAllByIdIn(@Param("cartIds") Collection<Long> cartIds);
+
+    // Move the totals of the carts by the difference the new price makes to their item of the product
+    @Modifying
+    @Query(value = "UPDATE carts c SET total_amount = total_amount + (SELECT COALESCE(SUM(:price * i.quantity - i.subtotal), 0) "
+            + "FROM cart_items i WHERE i.cart_id = c.id AND i.product_id = :productId) WHERE c.id IN (:cartIds)",
+            nativeQuery = true)
+    int addRepricingToTotals(@Param("cartIds") Collection<Long> cartIds, @Param("productId") Long productId,
+                             @Param("price") Double price);
+
+    // One-off fill of the totals columns for carts created before they existed
+    @Modifying
+    @Query(value = "UPDATE carts c SET "
+            + "total_items = (SELECT COALESCE(SUM(i.quantity), 0) FROM cart_items i WHERE i.cart_id = c.id), "
+            + "total_amount = (SELECT COALESCE(SUM(i.subtotal), 0) FROM cart_items i WHERE i.cart_id = c.id) "
+            + "WHERE c.total_items = 0 AND EXISTS (SELECT 1 FROM cart_items i WHERE i.cart_id = c.id)",
+            nativeQuery = true)
+    int backfillTotals();
 }
\ No newline at end of file
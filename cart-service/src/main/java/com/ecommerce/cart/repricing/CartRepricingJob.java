@@ -0,0 +1,190 @@
+package com.ecommerce.cart.repricing;
+
+import com.ecommerce.cart.dto.ProductPriceChange;
+import com.ecommerce.cart.dto.RepricingStats;
+import com.ecommerce.cart.repository.CartItemRepository;
+import com.ecommerce.cart.repository.CartRepository;
+import com.ecommerce.cart.store.WriteBehindCartStore;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Brings cart items in line with product price and availability changes.
+// Changes are queued per product (a newer change replaces a queued one) and
+// applied by one background thread. Each chunk is a short transaction that locks
+// up to chunk-size affected carts in id order, moves their totals by the price
+// difference and rewrites the matching items with one set-based UPDATE. Each chunk
+// starts after the last cart of the previous one, until no stale item is left.
+// Failed changes are retried.
+@Component
+public class CartRepricingJob {
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private WriteBehindCartStore writeBehindCartStore;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${cart.repricing.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${cart.repricing.chunk-pause-ms:20}")
+    private long chunkPauseMs;
+
+    private final Object lock = new Object();
+    // Guarded by lock
+    private final LinkedHashMap<Long, ProductPriceChange> pending = new LinkedHashMap<>();
+    private boolean draining;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cart-repricing");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicLong submittedChanges = new AtomicLong();
+    private final AtomicLong processedChanges = new AtomicLong();
+    private final AtomicLong failedChanges = new AtomicLong();
+    private final AtomicLong repricedItems = new AtomicLong();
+    private final AtomicLong chunks = new AtomicLong();
+    private volatile String lastError;
+
+    // Queue changes for repricing; returns before the rows are rewritten
+    public void submit(List<ProductPriceChange> changes) {
+        if (changes == null || changes.isEmpty()) {
+            throw new RuntimeException("changes must not be empty");
+        }
+        for (ProductPriceChange change : changes) {
+            if (change.getProductId() == null || change.getPrice() == null || change.getAvailable() == null) {
+                throw new RuntimeException("Every change needs a productId, price and available flag");
+            }
+            if (change.getPrice() < 0) {
+                throw new RuntimeException("Price must not be negative");
+            }
+        }
+        for (ProductPriceChange change : changes) {
+            writeBehindCartStore.applyProductChange(change.getProductId(), change.getPrice(), change.getAvailable());
+        }
+        synchronized (lock) {
+            for (ProductPriceChange change : changes) {
+                pending.remove(change.getProductId());
+                pending.put(change.getProductId(), change);
+            }
+            submittedChanges.addAndGet(changes.size());
+        }
+        startDraining();
+    }
+
+    // Picks up changes left behind by a failed run
+    @Scheduled(fixedDelayString = "${cart.repricing.retry-interval-ms:30000}")
+    public void retryPending() {
+        startDraining();
+    }
+
+    public RepricingStats getStats() {
+        int pendingCount;
+        synchronized (lock) {
+            pendingCount = pending.size();
+        }
+        return new RepricingStats(pendingCount, submittedChanges.get(), processedChanges.get(),
+                failedChanges.get(), repricedItems.get(), chunks.get(), lastError);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void startDraining() {
+        synchronized (lock) {
+            if (draining || pending.isEmpty()) {
+                return;
+            }
+            draining = true;
+        }
+        executor.execute(this::drain);
+    }
+
+    private void drain() {
+        while (true) {
+            ProductPriceChange change;
+            synchronized (lock) {
+                Iterator<ProductPriceChange> changes = pending.values().iterator();
+                if (!changes.hasNext()) {
+                    draining = false;
+                    return;
+                }
+                change = changes.next();
+                changes.remove();
+            }
+            try {
+                reprice(change);
+                processedChanges.incrementAndGet();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                requeue(change);
+                return;
+            } catch (RuntimeException e) {
+                failedChanges.incrementAndGet();
+                lastError = e.getMessage();
+                System.err.println("❌ Repricing carts for product " + change.getProductId() + " failed: " + e.getMessage());
+                requeue(change);
+                return;
+            }
+        }
+    }
+
+    // Helper: Put a change back unless a newer one arrived, and let the retry pick it up
+    private void requeue(ProductPriceChange change) {
+        synchronized (lock) {
+            pending.putIfAbsent(change.getProductId(), change);
+            draining = false;
+        }
+    }
+
+    // Helper: Rewrite the product's stale items chunk by chunk, carrying the last cart id between chunks
+    private void reprice(ProductPriceChange change) throws InterruptedException {
+        long afterCartId = 0;
+        while (true) {
+            long cursor = afterCartId;
+            List<Long> cartIds = transactionTemplate.execute(status -> repriceChunk(change, cursor));
+            if (cartIds.size() < chunkSize) {
+                return;
+            }
+            afterCartId = cartIds.get(cartIds.size() - 1);
+            Thread.sleep(chunkPauseMs);
+        }
+    }
+
+    // Helper: Reprice one chunk of carts after afterCartId; returns the ids of the carts touched
+    private List<Long> repriceChunk(ProductPriceChange change, long afterCartId) {
+        List<Long> cartIds = cartItemRepository.findStaleCartIds(change.getProductId(), afterCartId,
+                change.getPrice(), change.getAvailable(), chunkSize);
+        if (cartIds.isEmpty()) {
+            return cartIds;
+        }
+        cartRepository.lockAllByIdIn(cartIds);
+        cartRepository.addRepricingToTotals(cartIds, change.getProductId(), change.getPrice());
+        int items = cartItemRepository.repriceItems(cartIds, change.getProductId(), change.getPrice(),
+                change.getAvailable());
+        chunks.incrementAndGet();
+        repricedItems.addAndGet(items);
+        return cartIds;
+    }
+}
@@ -0,0 +1,8 @@
+package com.ecommerce.cart.resilience;
+
+// Thrown without calling the downstream when its circuit is open or its bulkhead is full
+public class DownstreamUnavailableException extends RuntimeException {
+    public DownstreamUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,78 @@
+package com.ecommerce.cart.resilience;
+
+import com.ecommerce.cart.dto.DownstreamStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Wraps every RestTemplate call in the guard of its downstream (host:port).
+// I/O errors and 5xx responses count as failures; 4xx are the caller's problem.
+@Component
+public class ResilienceInterceptor implements ClientHttpRequestInterceptor {
+
+    @Value("${resilience.window-size:20}")
+    private int windowSize;
+
+    @Value("${resilience.minimum-calls:10}")
+    private int minimumCalls;
+
+    @Value("${resilience.failure-rate-threshold:50}")
+    private double failureRateThreshold;
+
+    @Value("${resilience.open-seconds:10}")
+    private long openSeconds;
+
+    @Value("${resilience.half-open-calls:3}")
+    private int halfOpenCalls;
+
+    @Value("${resilience.max-concurrent-calls:50}")
+    private int maxConcurrentCalls;
+
+    @Value("${resilience.max-wait-ms:100}")
+    private long maxWaitMillis;
+
+    private final ConcurrentHashMap<String, DownstreamGuard> guards = new ConcurrentHashMap<>();
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body,
+                                        ClientHttpRequestExecution execution) throws IOException {
+        DownstreamGuard guard = guards.computeIfAbsent(downstream(request.getURI()), this::newGuard);
+        guard.acquire();
+        boolean failed = true;
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            failed = response.getStatusCode().is5xxServerError();
+            return response;
+        } finally {
+            if (failed) {
+                guard.onFailure();
+            } else {
+                guard.onSuccess();
+            }
+        }
+    }
+
+    public List<DownstreamStats> getStats() {
+        List<DownstreamStats> stats = new ArrayList<>();
+        guards.values().forEach(guard -> stats.add(guard.getStats()));
+        return stats;
+    }
+
+    private DownstreamGuard newGuard(String name) {
+        return new DownstreamGuard(name, windowSize, minimumCalls, failureRateThreshold,
+                openSeconds, halfOpenCalls, maxConcurrentCalls, maxWaitMillis);
+    }
+
+    private static String downstream(URI uri) {
+        return uri.getHost() + ":" + uri.getPort();
+    }
+}
@@ -1,19 +1,35 @@
 package com.ecommerce.cart.service;
 
+import com.ecommerce.cart.cache.ProductSnapshotCache;
+import com.ecommerce.cart.config.HttpClientMetrics;
 import com.ecommerce.cart.dto.AddToCartRequest;
+import com.ecommerce.cart.dto.CartItemView;
+import com.ecommerce.cart.dto.CartOperation;
 import com.ecommerce.cart.dto.CartResponse;
+import com.ecommerce.cart.dto.CartViewRow;
+import com.ecommerce.cart.dto.DownstreamStats;
+import com.ecommerce.cart.dto.HttpClientStats;
+import com.ecommerce.cart.dto.ProductCacheStats;
+import com.ecommerce.cart.dto.ProductSnapshot;
 import com.ecommerce.cart.entity.Cart;
 import com.ecommerce.cart.entity.CartItem;
+import com.ecommerce.cart.enums.CartOperationType;
 import com.ecommerce.cart.repository.CartRepository;
 import com.ecommerce.cart.repository.CartItemRepository;
+import com.ecommerce.cart.resilience.ResilienceInterceptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @Service
 public class CartService {
@@ -25,80 +41,183 @@ public class CartService {
     private CartItemRepository cartItemRepository;
 
     @Autowired
-    private RestTemplate restTemplate;
+    private ProductSnapshotCache productSnapshotCache;
 
-    @Value("${product.service.url}")
-    private String productServiceUrl;
+    @Autowired
+    private HttpClientMetrics httpClientMetrics;
+
+    @Autowired
+    private ResilienceInterceptor resilienceInterceptor;
 
-    // Get or create cart for user
+    @Value("${cart.batch.max-operations:100}")
+    private int maxBatchOperations;
+
+    @Value("${cart.totals-backfill.enabled:false}")
+    private boolean totalsBackfillEnabled;
+
+    // Get or create cart for user, holding its row lock until the transaction ends.
+    // Insert-if-absent comes first: a locking read of a missing cart takes a gap lock,
+    // and two first adds for one user would then deadlock on each other's insert.
     @Transactional
     public Cart getOrCreateCart(Long userId) {
-        return cartRepository.findByUserId(userId)
-                .orElseGet(() -> {
-                    Cart newCart = new Cart();
-                    newCart.setUserId(userId);
-                    return cartRepository.save(newCart);
-                });
+        cartRepository.insertIfAbsent(userId);
+        return cartRepository.findLockedByUserId(userId)
+                .orElseThrow(() -> new RuntimeException("Cart not found for user: " + userId));
     }
 
     // Add item to cart
     @Transactional
     public CartResponse addToCart(AddToCartRequest request) {
-        // Get product details from Product Service
-        Map<String, Object> product = getProductFromService(request.getProductId());
-        
+        // Get product details from the near-cache, falling back to Product Service
+        ProductSnapshot product = getAvailableProduct(request.getProductId());
+
+        // Get or create cart
+        Cart cart = getOrCreateCart(request.getUserId());
+
+        // Insert the item or add to its quantity in one statement, then move the totals by the same amount
+        cartItemRepository.upsertQuantity(cart.getId(), request.getProductId(), product.getName(),
+                product.getPrice(), request.getQuantity());
+        cartRepository.addItemToTotals(cart.getId(), request.getProductId(), request.getQuantity());
+
+        return getCartByUserId(request.getUserId());
+    }
+
+    // Product snapshot for an add, rejecting unknown and out-of-stock products
+    public ProductSnapshot getAvailableProduct(Long productId) {
+        ProductSnapshot product = productSnapshotCache.get(productId);
+
         if (product == null) {
-            throw new RuntimeException("Product not found with ID: " + request.getProductId());
+            throw new RuntimeException("Product not found with ID: " + productId);
         }
 
         // Check if product is available
-        Boolean available = (Boolean) product.get("available");
+        Boolean available = product.getAvailable();
         if (available != null && !available) {
             throw new RuntimeException("Product is out of stock");
         }
+        return product;
+    }
 
-        // Get or create cart
-        Cart cart = getOrCreateCart(request.getUserId());
+    // Apply a list of add / update / remove operations in one transaction, all or nothing
+    @Transactional
+    public CartResponse applyBatch(Long userId, List<CartOperation> operations) {
+        Map<Long, ProductSnapshot> products = resolveBatch(operations);
+
+        Cart cart = products.isEmpty()
+                ? cartRepository.findLockedByUserId(userId).orElseThrow(() -> new RuntimeException("Cart not found"))
+                : getOrCreateCart(userId);
 
-        // Check if item already exists in cart
-        Optional<CartItem> existingItem = cartItemRepository
-                .findByCartIdAndProductId(cart.getId(), request.getProductId());
-
-        CartItem cartItem;
-        if (existingItem.isPresent()) {
-            // Update quantity
-            cartItem = existingItem.get();
-            cartItem.setQuantity(cartItem.getQuantity() + request.getQuantity());
-            cartItem.calculateSubtotal();
-        } else {
-            // Create new cart item
-            cartItem = new CartItem();
-            cartItem.setCart(cart);
-            cartItem.setProductId(request.getProductId());
-            cartItem.setProductName((String) product.get("name"));
-            cartItem.setProductPrice((Double) product.get("price"));
-            cartItem.setQuantity(request.getQuantity());
-            cartItem.calculateSubtotal();
-            cart.getItems().add(cartItem);
+        Map<Long, CartItem> items = new HashMap<>();
+        for (CartItem item : cartItemRepository.findByCartId(cart.getId())) {
+            items.put(item.getProductId(), item);
+        }
+        int itemsDelta = 0;
+        double amountDelta = 0;
+        for (CartOperation operation : operations) {
+            CartItem cartItem = items.get(operation.getProductId());
+            switch (operation.getType()) {
+                case ADD -> {
+                    if (cartItem != null) {
+                        amountDelta -= cartItem.getSubtotal();
+                        cartItem.setQuantity(cartItem.getQuantity() + operation.getQuantity());
+                    } else {
+                        ProductSnapshot product = products.get(operation.getProductId());
+                        cartItem = new CartItem();
+                        cartItem.setCart(cart);
+                        cartItem.setProductId(operation.getProductId());
+                        cartItem.setProductName(product.getName());
+                        cartItem.setProductPrice(product.getPrice());
+                        cartItem.setQuantity(operation.getQuantity());
+                        items.put(operation.getProductId(), cartItem);
+                    }
+                    cartItem.calculateSubtotal();
+                    cartItemRepository.save(cartItem);
+                    itemsDelta += operation.getQuantity();
+                    amountDelta += cartItem.getSubtotal();
+                }
+                case UPDATE -> {
+                    requireItem(cartItem, operation.getProductId());
+                    itemsDelta += operation.getQuantity() - cartItem.getQuantity();
+                    amountDelta -= cartItem.getSubtotal();
+                    cartItem.setQuantity(operation.getQuantity());
+                    cartItem.calculateSubtotal();
+                    amountDelta += cartItem.getSubtotal();
+                }
+                case REMOVE -> {
+                    requireItem(cartItem, operation.getProductId());
+                    itemsDelta -= cartItem.getQuantity();
+                    amountDelta -= cartItem.getSubtotal();
+                    cartItemRepository.delete(cartItem);
+                    items.remove(operation.getProductId());
+                }
+            }
         }
 
-        cartItemRepository.save(cartItem);
-        cart = cartRepository.save(cart);
+        cartRepository.addToTotals(cart.getId(), itemsDelta, amountDelta);
+        return getCartByUserId(userId);
+    }
+
+    // Validate a batch and resolve the products it adds with a single lookup
+    public Map<Long, ProductSnapshot> resolveBatch(List<CartOperation> operations) {
+        if (operations == null || operations.isEmpty()) {
+            throw new RuntimeException("operations must not be empty");
+        }
+        if (operations.size() > maxBatchOperations) {
+            throw new RuntimeException("At most " + maxBatchOperations + " operations are allowed per batch");
+        }
+        Set<Long> addedProductIds = new LinkedHashSet<>();
+        for (CartOperation operation : operations) {
+            if (operation.getType() == null || operation.getProductId() == null) {
+                throw new RuntimeException("Every operation needs a type and a productId");
+            }
+            if (operation.getType() != CartOperationType.REMOVE
+                    && (operation.getQuantity() == null || operation.getQuantity() <= 0)) {
+                throw new RuntimeException("Quantity must be greater than 0");
+            }
+            if (operation.getType() == CartOperationType.ADD) {
+                addedProductIds.add(operation.getProductId());
+            }
+        }
+        if (addedProductIds.isEmpty()) {
+            return new HashMap<>();
+        }
 
-        return buildCartResponse(cart);
+        Map<Long, ProductSnapshot> products = productSnapshotCache.getAll(addedProductIds);
+        for (Long productId : addedProductIds) {
+            ProductSnapshot product = products.get(productId);
+            if (product == null) {
+                throw new RuntimeException("Product not found with ID: " + productId);
+            }
+            if (product.getAvailable() != null && !product.getAvailable()) {
+                throw new RuntimeException("Product is out of stock: " + productId);
+            }
+        }
+        return products;
     }
 
-    // Get cart by user ID
+    // Get cart by user ID, read straight into response DTOs
+    @Transactional(readOnly = true)
     public CartResponse getCartByUserId(Long userId) {
-        Cart cart = cartRepository.findByUserId(userId)
-                .orElseThrow(() -> new RuntimeException("Cart not found for user: " + userId));
-        return buildCartResponse(cart);
+        List<CartViewRow> rows = cartRepository.findViewRowsByUserId(userId);
+        if (rows.isEmpty()) {
+            throw new RuntimeException("Cart not found for user: " + userId);
+        }
+
+        List<CartItemView> items = new ArrayList<>(rows.size());
+        for (CartViewRow row : rows) {
+            if (row.itemId() != null) {
+                items.add(new CartItemView(row.itemId(), row.productId(), row.productName(),
+                        row.productPrice(), row.productAvailable(), row.quantity(), row.subtotal()));
+            }
+        }
+        CartViewRow cart = rows.get(0);
+        return new CartResponse(cart.cartId(), userId, items, cart.totalItems(), cart.totalAmount());
     }
 
     // Update item quantity
     @Transactional
     public CartResponse updateItemQuantity(Long userId, Long productId, Integer quantity) {
-        Cart cart = cartRepository.findByUserId(userId)
+        Cart cart = cartRepository.findLockedByUserId(userId)
                 .orElseThrow(() -> new RuntimeException("Cart not found"));
 
         CartItem cartItem = cartItemRepository.findByCartIdAndProductId(cart.getId(), productId)
@@ -108,56 +227,75 @@ public class CartService {
             throw new RuntimeException("Quantity must be greater than 0");
         }
 
+        int itemsDelta = quantity - cartItem.getQuantity();
+        double amountDelta = -cartItem.getSubtotal();
         cartItem.setQuantity(quantity);
         cartItem.calculateSubtotal();
+        amountDelta += cartItem.getSubtotal();
         cartItemRepository.save(cartItem);
+        cartRepository.addToTotals(cart.getId(), itemsDelta, amountDelta);
 
-        return buildCartResponse(cart);
+        return getCartByUserId(userId);
     }
 
     // Remove item from cart
     @Transactional
     public CartResponse removeItemFromCart(Long userId, Long productId) {
-        Cart cart = cartRepository.findByUserId(userId)
+        Cart cart = cartRepository.findLockedByUserId(userId)
                 .orElseThrow(() -> new RuntimeException("Cart not found"));
 
         CartItem cartItem = cartItemRepository.findByCartIdAndProductId(cart.getId(), productId)
                 .orElseThrow(() -> new RuntimeException("Item not found in cart"));
 
-        cart.getItems().remove(cartItem);
         cartItemRepository.delete(cartItem);
+        cartRepository.addToTotals(cart.getId(), -cartItem.getQuantity(), -cartItem.getSubtotal());
 
-        return buildCartResponse(cart);
+        return getCartByUserId(userId);
     }
 
     // Clear entire cart
     @Transactional
     public void clearCart(Long userId) {
-        Cart cart = cartRepository.findByUserId(userId)
+        Cart cart = cartRepository.findLockedByUserId(userId)
                 .orElseThrow(() -> new RuntimeException("Cart not found"));
-        
-        cart.getItems().clear();
-        cartRepository.save(cart);
+
+        cartItemRepository.deleteAllByCartId(cart.getId());
+        cartRepository.resetTotals(cart.getId());
     }
 
-    // Helper: Get product from Product Service
-    private Map<String, Object> getProductFromService(Long productId) {
-        try {
-            String url = productServiceUrl + "/" + productId;
-            return restTemplate.getForObject(url, Map.class);
-        } catch (Exception e) {
-            throw new RuntimeException("Error fetching product from Product Service: " + e.getMessage());
+    // Fill the totals columns of carts written before they were maintained.
+    // A one-off migration: enable cart.totals-backfill.enabled for one start after upgrading.
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void backfillCartTotals() {
+        if (!totalsBackfillEnabled) {
+            return;
+        }
+        int updated = cartRepository.backfillTotals();
+        if (updated > 0) {
+            System.out.println("✅ Backfilled totals of " + updated + " carts");
         }
     }
 
-    // Helper: Build cart response
-    private CartResponse buildCartResponse(Cart cart) {
-        CartResponse response = new CartResponse();
-        response.setCartId(cart.getId());
-        response.setUserId(cart.getUserId());
-        response.setItems(cart.getItems());
-        response.setTotalItems(cart.getTotalItems());
-        response.setTotalAmount(cart.getTotalAmount());
-        return response;
+    // Product near-cache statistics
+    public ProductCacheStats getProductCacheStats() {
+        return productSnapshotCache.getStats();
+    }
+
+    // Outgoing HTTP pool and latency statistics
+    public HttpClientStats getHttpClientStats() {
+        return httpClientMetrics.getStats();
+    }
+
+    // Circuit breaker / bulkhead state per downstream
+    public List<DownstreamStats> getDownstreamStats() {
+        return resilienceInterceptor.getStats();
+    }
+
+    // Helper: Fail a batch operation that targets a product not in the cart
+    private void requireItem(CartItem cartItem, Long productId) {
+        if (cartItem == null) {
+            throw new RuntimeException("Item not found in cart: " + productId);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,537 @@
+package com.ecommerce.cart.store;
+
+import com.ecommerce.cart.dto.AddToCartRequest;
+import com.ecommerce.cart.dto.CartItemView;
+import com.ecommerce.cart.dto.CartOperation;
+import com.ecommerce.cart.dto.CartResponse;
+import com.ecommerce.cart.dto.ProductSnapshot;
+import com.ecommerce.cart.dto.WriteBehindStats;
+import com.ecommerce.cart.entity.Cart;
+import com.ecommerce.cart.entity.CartItem;
+import com.ecommerce.cart.repository.CartRepository;
+import com.ecommerce.cart.service.CartService;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Optional write-behind mode (cart.write-behind.enabled): active carts live in
+// memory, sharded by userId, and every read or mutation is served from there.
+// Changed carts are written to MySQL by a background flush that coalesces all
+// changes a cart received since the last flush into one reconcile of its rows.
+// A cart missing from memory is loaded from MySQL on first use, so a restart
+// recovers everything flushed before it; at most flush-interval-ms of changes
+// (or max-dirty-carts carts) can be lost on a crash. Requests for one user
+// must be routed to the same instance while this mode is on.
+@Component
+public class WriteBehindCartStore {
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${cart.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${cart.write-behind.max-dirty-carts:5000}")
+    private int maxDirtyCarts;
+
+    @Value("${cart.write-behind.flush-batch-size:200}")
+    private int flushBatchSize;
+
+    @Value("${cart.write-behind.idle-evict-seconds:1800}")
+    private long idleEvictSeconds;
+
+    private final Shard[] shards;
+    private final AtomicInteger dirtyCarts = new AtomicInteger();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final ExecutorService flushExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "cart-write-behind");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicLong flushedCarts = new AtomicLong();
+    private final AtomicLong failedFlushes = new AtomicLong();
+
+    public WriteBehindCartStore(@Value("${cart.write-behind.shards:64}") int shardCount) {
+        this.shards = new Shard[Integer.highestOneBit(Math.max(1, shardCount))];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new Shard();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Add item to cart
+    public CartResponse addToCart(AddToCartRequest request) {
+        ProductSnapshot product = cartService.getAvailableProduct(request.getProductId());
+        return withCart(request.getUserId(), true, "Cart not found", cart -> {
+            CachedItem item = cart.items.get(request.getProductId());
+            if (item != null) {
+                item.quantity += request.getQuantity();
+            } else {
+                cart.items.put(request.getProductId(), new CachedItem(null, product.getName(),
+                        product.getPrice(), true, request.getQuantity()));
+            }
+        });
+    }
+
+    // Apply a list of add / update / remove operations, all or nothing
+    public CartResponse applyBatch(Long userId, List<CartOperation> operations) {
+        Map<Long, ProductSnapshot> products = cartService.resolveBatch(operations);
+        return withCart(userId, !products.isEmpty(), "Cart not found", cart -> {
+            // Work on a copy so a failing operation leaves the cart untouched
+            LinkedHashMap<Long, CachedItem> items = new LinkedHashMap<>();
+            cart.items.forEach((productId, item) -> items.put(productId, item.copy()));
+            for (CartOperation operation : operations) {
+                CachedItem item = items.get(operation.getProductId());
+                switch (operation.getType()) {
+                    case ADD -> {
+                        if (item != null) {
+                            item.quantity += operation.getQuantity();
+                        } else {
+                            ProductSnapshot product = products.get(operation.getProductId());
+                            items.put(operation.getProductId(), new CachedItem(null, product.getName(),
+                                    product.getPrice(), true, operation.getQuantity()));
+                        }
+                    }
+                    case UPDATE -> requireItem(item, operation.getProductId()).quantity = operation.getQuantity();
+                    case REMOVE -> {
+                        requireItem(item, operation.getProductId());
+                        items.remove(operation.getProductId());
+                    }
+                }
+            }
+            cart.items.clear();
+            cart.items.putAll(items);
+        });
+    }
+
+    // Get cart by user ID
+    public CartResponse getCartByUserId(Long userId) {
+        return withCart(userId, false, "Cart not found for user: " + userId, null);
+    }
+
+    // Update item quantity
+    public CartResponse updateItemQuantity(Long userId, Long productId, Integer quantity) {
+        return withCart(userId, false, "Cart not found", cart -> {
+            CachedItem item = cart.items.get(productId);
+            if (item == null) {
+                throw new RuntimeException("Item not found in cart");
+            }
+            if (quantity <= 0) {
+                throw new RuntimeException("Quantity must be greater than 0");
+            }
+            item.quantity = quantity;
+        });
+    }
+
+    // Remove item from cart
+    public CartResponse removeItemFromCart(Long userId, Long productId) {
+        return withCart(userId, false, "Cart not found", cart -> {
+            if (cart.items.remove(productId) == null) {
+                throw new RuntimeException("Item not found in cart");
+            }
+        });
+    }
+
+    // Clear entire cart
+    public void clearCart(Long userId) {
+        withCart(userId, false, "Cart not found", cart -> cart.items.clear());
+    }
+
+    public WriteBehindStats getStats() {
+        int cached = 0;
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                cached += shard.carts.size();
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        return new WriteBehindStats(enabled, cached, dirtyCarts.get(), flushedCarts.get(), failedFlushes.get());
+    }
+
+    // Reprice cached carts holding the product. They are marked dirty so the next flush
+    // writes the new price even if it raced with CartRepricingJob updating the rows.
+    public void applyProductChange(Long productId, Double price, Boolean available) {
+        if (!enabled) {
+            return;
+        }
+        int newlyDirty = 0;
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                for (CachedCart cart : shard.carts.values()) {
+                    CachedItem item = cart.items.get(productId);
+                    if (item == null) {
+                        continue;
+                    }
+                    boolean wasDirty = cart.isDirty();
+                    item.price = price;
+                    item.available = available;
+                    cart.version++;
+                    if (!wasDirty) {
+                        newlyDirty++;
+                    }
+                }
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        dirtyCarts.addAndGet(newlyDirty);
+    }
+
+    // Write every changed cart to MySQL, a batch per transaction
+    @Scheduled(fixedDelayString = "${cart.write-behind.flush-interval-ms:1000}")
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            List<CartSnapshot> batch = new ArrayList<>(flushBatchSize);
+            for (Shard shard : shards) {
+                shard.lock.lock();
+                try {
+                    for (CachedCart cart : shard.carts.values()) {
+                        if (cart.isDirty()) {
+                            batch.add(cart.snapshot());
+                        }
+                    }
+                } finally {
+                    shard.lock.unlock();
+                }
+                if (batch.size() >= flushBatchSize) {
+                    writeBatch(batch);
+                    batch = new ArrayList<>(flushBatchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                writeBatch(batch);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    // Forget clean carts nobody touched for a while; they are reloaded from MySQL on demand
+    @Scheduled(fixedDelayString = "${cart.write-behind.evict-interval-ms:60000}")
+    public void evictIdleCarts() {
+        if (!enabled) {
+            return;
+        }
+        long cutoff = System.nanoTime() - TimeUnit.SECONDS.toNanos(idleEvictSeconds);
+        for (Shard shard : shards) {
+            shard.lock.lock();
+            try {
+                shard.carts.values().removeIf(cart -> !cart.isDirty() && cart.lastAccess - cutoff < 0);
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushExecutor.shutdownNow();
+        if (enabled) {
+            flush();
+            System.out.println("✅ Write-behind carts flushed on shutdown");
+        }
+    }
+
+    // Helper: Apply a change to the in-memory cart under its shard lock and build the response
+    private CartResponse withCart(Long userId, boolean createIfMissing, String notFoundMessage, CartChange change) {
+        Shard shard = shardFor(userId);
+        CachedCart cart = load(shard, userId);
+        boolean becameDirty;
+        CartResponse response;
+        shard.lock.lock();
+        try {
+            if (cart == null) {
+                cart = shard.carts.get(userId);
+            }
+            if (cart == null) {
+                if (!createIfMissing) {
+                    throw new RuntimeException(notFoundMessage);
+                }
+                cart = new CachedCart(userId, null);
+                shard.carts.put(userId, cart);
+            }
+            cart.lastAccess = System.nanoTime();
+            boolean wasDirty = cart.isDirty();
+            if (change != null) {
+                change.apply(cart);
+                cart.version++;
+            }
+            becameDirty = !wasDirty && cart.isDirty();
+            response = cart.toResponse();
+        } finally {
+            shard.lock.unlock();
+        }
+        if (becameDirty && dirtyCarts.incrementAndGet() > maxDirtyCarts) {
+            requestFlush();
+        }
+        return response;
+    }
+
+    // Helper: Cached cart of the user, loading it from MySQL on a miss; null if it has none
+    private CachedCart load(Shard shard, Long userId) {
+        shard.lock.lock();
+        try {
+            CachedCart cached = shard.carts.get(userId);
+            if (cached != null) {
+                return cached;
+            }
+        } finally {
+            shard.lock.unlock();
+        }
+        List<Cart> stored = transactionTemplate.execute(status -> cartRepository.findWithItemsByUserIdIn(List.of(userId)));
+        if (stored == null || stored.isEmpty()) {
+            return null;
+        }
+        CachedCart loaded = new CachedCart(userId, stored.get(0).getId());
+        for (CartItem item : stored.get(0).getItems()) {
+            loaded.items.put(item.getProductId(), new CachedItem(item.getId(), item.getProductName(),
+                    item.getProductPrice(), item.getProductAvailable(), item.getQuantity()));
+        }
+        shard.lock.lock();
+        try {
+            // Another request may have loaded or created it meanwhile
+            CachedCart existing = shard.carts.putIfAbsent(userId, loaded);
+            return existing != null ? existing : loaded;
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    private void requestFlush() {
+        try {
+            flushExecutor.execute(() -> {
+                if (dirtyCarts.get() > maxDirtyCarts) {
+                    flush();
+                }
+            });
+        } catch (RuntimeException e) {
+            // Executor already shut down
+        }
+    }
+
+    // Helper: Reconcile the cart and item rows of a batch with their snapshots in one transaction
+    private void writeBatch(List<CartSnapshot> batch) {
+        Map<Long, CartSnapshot> byUser = new HashMap<>();
+        batch.forEach(snapshot -> byUser.put(snapshot.userId, snapshot));
+        List<Cart> saved;
+        try {
+            saved = transactionTemplate.execute(status -> {
+                Map<Long, Cart> carts = new HashMap<>();
+                for (Cart cart : cartRepository.findWithItemsByUserIdIn(byUser.keySet())) {
+                    carts.put(cart.getUserId(), cart);
+                }
+                Map<Long, TotalsDelta> deltas = new HashMap<>();
+                for (CartSnapshot snapshot : batch) {
+                    Cart cart = carts.computeIfAbsent(snapshot.userId, userId -> {
+                        Cart newCart = new Cart();
+                        newCart.setUserId(userId);
+                        return newCart;
+                    });
+                    deltas.put(snapshot.userId, reconcile(cart, snapshot));
+                }
+                List<Cart> stored = cartRepository.saveAll(carts.values());
+                for (Cart cart : stored) {
+                    TotalsDelta delta = deltas.get(cart.getUserId());
+                    if (delta.items() != 0 || delta.amount() != 0) {
+                        cartRepository.addToTotals(cart.getId(), delta.items(), delta.amount());
+                    }
+                }
+                return stored;
+            });
+        } catch (RuntimeException e) {
+            // The carts stay dirty and are retried on the next flush
+            failedFlushes.incrementAndGet();
+            System.err.println("❌ Write-behind flush of " + batch.size() + " carts failed: " + e.getMessage());
+            return;
+        }
+        for (Cart cart : saved) {
+            CartSnapshot snapshot = byUser.get(cart.getUserId());
+            Shard shard = shardFor(cart.getUserId());
+            shard.lock.lock();
+            try {
+                CachedCart cached = shard.carts.get(cart.getUserId());
+                if (cached == null) {
+                    continue;
+                }
+                if (!cart.getId().equals(cached.cartId)) {
+                    // The cart row was (re)created, e.g. after compaction deleted it, so the
+                    // cached item ids point at rows that no longer exist
+                    cached.cartId = cart.getId();
+                    cached.items.values().forEach(cachedItem -> cachedItem.id = null);
+                }
+                for (CartItem item : cart.getItems()) {
+                    CachedItem cachedItem = cached.items.get(item.getProductId());
+                    if (cachedItem != null && cachedItem.id == null) {
+                        cachedItem.id = item.getId();
+                    }
+                }
+                boolean wasDirty = cached.isDirty();
+                cached.flushedVersion = Math.max(cached.flushedVersion, snapshot.version);
+                if (wasDirty && !cached.isDirty()) {
+                    dirtyCarts.decrementAndGet();
+                }
+            } finally {
+                shard.lock.unlock();
+            }
+        }
+        flushedCarts.addAndGet(saved.size());
+    }
+
+    // Returns how far the cart's totals move from the stored rows to the snapshot
+    private static TotalsDelta reconcile(Cart cart, CartSnapshot snapshot) {
+        Map<Long, CachedItem> wanted = new HashMap<>(snapshot.items);
+        int items = 0;
+        double amount = 0;
+        for (CachedItem item : wanted.values()) {
+            items += item.quantity;
+            amount += item.price * item.quantity;
+        }
+        Iterator<CartItem> rows = cart.getItems().iterator();
+        while (rows.hasNext()) {
+            CartItem row = rows.next();
+            items -= row.getQuantity();
+            amount -= row.getSubtotal();
+            CachedItem item = wanted.remove(row.getProductId());
+            if (item == null) {
+                rows.remove();
+            } else if (!row.getQuantity().equals(item.quantity) || !row.getProductPrice().equals(item.price)
+                    || !row.getProductAvailable().equals(item.available)) {
+                row.setProductPrice(item.price);
+                row.setProductAvailable(item.available);
+                row.setQuantity(item.quantity);
+                row.calculateSubtotal();
+            }
+        }
+        for (Map.Entry<Long, CachedItem> entry : wanted.entrySet()) {
+            CartItem row = new CartItem();
+            row.setCart(cart);
+            row.setProductId(entry.getKey());
+            row.setProductName(entry.getValue().name);
+            row.setProductPrice(entry.getValue().price);
+            row.setProductAvailable(entry.getValue().available);
+            row.setQuantity(entry.getValue().quantity);
+            row.calculateSubtotal();
+            cart.getItems().add(row);
+        }
+        return new TotalsDelta(items, amount);
+    }
+
+    private static CachedItem requireItem(CachedItem item, Long productId) {
+        if (item == null) {
+            throw new RuntimeException("Item not found in cart: " + productId);
+        }
+        return item;
+    }
+
+    private Shard shardFor(Long userId) {
+        return shards[Long.hashCode(userId) & (shards.length - 1)];
+    }
+
+    private record TotalsDelta(int items, double amount) {
+    }
+
+    private interface CartChange {
+        void apply(CachedCart cart);
+    }
+
+    private static final class Shard {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<Long, CachedCart> carts = new HashMap<>();
+    }
+
+    // Guarded by its shard's lock
+    private static final class CachedCart {
+        private final Long userId;
+        private Long cartId;
+        private final LinkedHashMap<Long, CachedItem> items = new LinkedHashMap<>();
+        private long version;
+        private long flushedVersion;
+        private long lastAccess = System.nanoTime();
+
+        private CachedCart(Long userId, Long cartId) {
+            this.userId = userId;
+            this.cartId = cartId;
+        }
+
+        private boolean isDirty() {
+            return version != flushedVersion;
+        }
+
+        private CartSnapshot snapshot() {
+            Map<Long, CachedItem> copy = new LinkedHashMap<>();
+            items.forEach((productId, item) -> copy.put(productId, item.copy()));
+            return new CartSnapshot(userId, version, copy);
+        }
+
+        private CartResponse toResponse() {
+            List<CartItemView> responseItems = new ArrayList<>(items.size());
+            int totalItems = 0;
+            double totalAmount = 0.0;
+            for (Map.Entry<Long, CachedItem> entry : items.entrySet()) {
+                CachedItem item = entry.getValue();
+                double subtotal = item.price * item.quantity;
+                responseItems.add(new CartItemView(item.id, entry.getKey(), item.name, item.price,
+                        item.available, item.quantity, subtotal));
+                totalItems += item.quantity;
+                totalAmount += subtotal;
+            }
+            return new CartResponse(cartId, userId, responseItems, totalItems, totalAmount);
+        }
+    }
+
+    private static final class CachedItem {
+        private Long id;
+        private final String name;
+        private Double price;
+        private Boolean available;
+        private Integer quantity;
+
+        private CachedItem(Long id, String name, Double price, Boolean available, Integer quantity) {
+            this.id = id;
+            this.name = name;
+            this.price = price;
+            this.available = available;
+            this.quantity = quantity;
+        }
+
+        private CachedItem copy() {
+            return new CachedItem(id, name, price, available, quantity);
+        }
+    }
+
+    private record CartSnapshot(Long userId, long version, Map<Long, CachedItem> items) {
+    }
+}
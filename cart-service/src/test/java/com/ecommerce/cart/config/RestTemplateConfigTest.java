@@ -0,0 +1,52 @@
+package com.ecommerce.cart.config;
+
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.impl.DefaultSchemePortResolver;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.routing.DefaultRoutePlanner;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.http.HttpHost;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.URI;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// The downstream's max-per-route must be set on the route the client actually plans,
+// whether or not the configured URL spells out the port
+class RestTemplateConfigTest {
+
+    @Test
+    void downstreamLimitAppliesToPlannedRouteWithoutExplicitHttpPort() throws Exception {
+        assertDownstreamLimit("http://product-service/products");
+    }
+
+    @Test
+    void downstreamLimitAppliesToPlannedRouteWithoutExplicitHttpsPort() throws Exception {
+        assertDownstreamLimit("https://product-service/products");
+    }
+
+    @Test
+    void downstreamLimitAppliesToPlannedRouteWithExplicitPort() throws Exception {
+        assertDownstreamLimit("http://localhost:8081/products");
+    }
+
+    private void assertDownstreamLimit(String url) throws Exception {
+        RestTemplateConfig config = new RestTemplateConfig();
+        ReflectionTestUtils.setField(config, "downstreamUrl", url);
+        ReflectionTestUtils.setField(config, "maxTotal", 200);
+        ReflectionTestUtils.setField(config, "maxPerRoute", 20);
+        ReflectionTestUtils.setField(config, "downstreamMaxPerRoute", 100);
+        ReflectionTestUtils.setField(config, "connectTimeoutMillis", 1000L);
+        ReflectionTestUtils.setField(config, "responseTimeoutMillis", 3000L);
+        ReflectionTestUtils.setField(config, "timeToLiveSeconds", 300L);
+        PoolingHttpClientConnectionManager connectionManager = config.connectionManager();
+
+        HttpRoute planned = new DefaultRoutePlanner(DefaultSchemePortResolver.INSTANCE)
+                .determineRoute(HttpHost.create(URI.create(url)), HttpClientContext.create());
+
+        assertEquals(100, connectionManager.getMaxPerRoute(planned));
+        connectionManager.close();
+    }
+}
@@ -0,0 +1,80 @@
+package com.ecommerce.cart.repricing;
+
+import com.ecommerce.cart.dto.ProductPriceChange;
+import com.ecommerce.cart.dto.RepricingStats;
+import com.ecommerce.cart.entity.Cart;
+import com.ecommerce.cart.entity.CartItem;
+import com.ecommerce.cart.repository.CartItemRepository;
+import com.ecommerce.cart.repository.CartRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// A price change spanning several chunks: every cart holding the product is repriced
+// exactly once, and each chunk continues after the last cart of the previous one.
+@SpringBootTest(properties = {"cart.repricing.chunk-size=3", "cart.repricing.chunk-pause-ms=0"})
+@ActiveProfiles("test")
+class CartRepricingJobTest {
+
+    private static final long PRODUCT_ID = 77;
+    private static final int CARTS = 10;
+
+    @Autowired
+    private CartRepricingJob repricingJob;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Test
+    void repricesEveryCartAcrossChunks() throws Exception {
+        for (long userId = 1; userId <= CARTS; userId++) {
+            Cart cart = new Cart();
+            cart.setUserId(userId);
+            CartItem item = new CartItem();
+            item.setCart(cart);
+            item.setProductId(PRODUCT_ID);
+            item.setProductName("Product " + PRODUCT_ID);
+            item.setProductPrice(10.0);
+            item.setQuantity(2);
+            item.calculateSubtotal();
+            cart.getItems().add(item);
+            cart.setTotalItems(2);
+            cart.setTotalAmount(20.0);
+            cartRepository.save(cart);
+        }
+
+        // A whole-number price: H2 types the bound price after i.quantity in the totals update and would round 12.5
+        repricingJob.submit(List.of(new ProductPriceChange(PRODUCT_ID, 12.0, true)));
+        RepricingStats stats = awaitProcessed();
+
+        assertEquals(CARTS, stats.getRepricedItems());
+        // 3 + 3 + 3 + 1 carts
+        assertEquals(4, stats.getChunks());
+        for (CartItem item : cartItemRepository.findAll()) {
+            assertEquals(12.0, item.getProductPrice());
+            assertEquals(24.0, item.getSubtotal());
+        }
+        for (Cart cart : cartRepository.findAll()) {
+            assertEquals(24.0, cart.getTotalAmount(), 0.0001);
+        }
+    }
+
+    private RepricingStats awaitProcessed() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        RepricingStats stats = repricingJob.getStats();
+        while (stats.getProcessedChanges() + stats.getFailedChanges() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+            stats = repricingJob.getStats();
+        }
+        assertEquals(1, stats.getProcessedChanges(), "last error: " + stats.getLastError());
+        return stats;
+    }
+}
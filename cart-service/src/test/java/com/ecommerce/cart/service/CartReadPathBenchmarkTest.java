@@ -0,0 +1,161 @@
+package com.ecommerce.cart.service;
+
+import com.ecommerce.cart.dto.CartResponse;
+import com.ecommerce.cart.entity.Cart;
+import com.ecommerce.cart.entity.CartItem;
+import com.ecommerce.cart.repository.CartRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// GET /cart/{userId} read path on H2: the DTO projection (getCartByUserId) against the
+// entity path it replaced, a JOIN FETCH of Cart and its CartItem entities in a read-write
+// transaction. Both sides include JSON serialization of the response. Prints reads/s.
+// Runs with -Pbenchmarks.
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+class CartReadPathBenchmarkTest {
+
+    private static final int CARTS = 50;
+    private static final int ITEMS_PER_CART = 20;
+    private static final int THREADS = 8;
+    private static final int READS_PER_THREAD = 300;
+    private static final int ROUNDS = 2;
+    private static final long FIRST_USER_ID = 10_000;
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void projectionAgainstEntityReads() throws Exception {
+        createCarts();
+
+        // Both paths must return the same cart
+        for (long userId = FIRST_USER_ID; userId < FIRST_USER_ID + CARTS; userId++) {
+            CartResponse projected = cartService.getCartByUserId(userId);
+            Map<String, Object> loaded = readEntities(userId);
+            assertEquals(ITEMS_PER_CART, projected.getItems().size());
+            assertEquals(ITEMS_PER_CART, ((List<?>) loaded.get("items")).size());
+            assertEquals(projected.getTotalAmount(), (Double) loaded.get("totalAmount"), 0.0001);
+        }
+
+        // Warm up both paths before measuring
+        measure(this::readProjection);
+        measure(this::readEntitiesAsJson);
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            double projection = measure(this::readProjection);
+            double entities = measure(this::readEntitiesAsJson);
+            System.out.printf("Round %d, %d threads, %d items per cart: projection %.0f reads/s, entities %.0f reads/s%n",
+                    round, THREADS, ITEMS_PER_CART, projection, entities);
+        }
+    }
+
+    private String readProjection(long userId) throws Exception {
+        return objectMapper.writeValueAsString(cartService.getCartByUserId(userId));
+    }
+
+    private String readEntitiesAsJson(long userId) throws Exception {
+        return objectMapper.writeValueAsString(readEntities(userId));
+    }
+
+    // The pre-projection read: managed entities in a read-write transaction, items serialized as entities
+    private Map<String, Object> readEntities(long userId) {
+        return transactionTemplate.execute(status -> {
+            Cart cart = entityManager.createQuery(
+                            "SELECT c FROM Cart c LEFT JOIN FETCH c.items WHERE c.userId = :userId", Cart.class)
+                    .setParameter("userId", userId)
+                    .getSingleResult();
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("cartId", cart.getId());
+            response.put("userId", cart.getUserId());
+            response.put("items", cart.getItems());
+            response.put("totalItems", cart.getTotalItems());
+            response.put("totalAmount", cart.getTotalAmount());
+            return response;
+        });
+    }
+
+    private double measure(CartRead read) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Void>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(pool.submit((Callable<Void>) () -> {
+                start.await();
+                for (int n = 0; n < READS_PER_THREAD; n++) {
+                    read.read(FIRST_USER_ID + (thread * READS_PER_THREAD + n) % CARTS);
+                }
+                return null;
+            }));
+        }
+        long startedAt = System.nanoTime();
+        start.countDown();
+        for (Future<Void> future : futures) {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - startedAt;
+        pool.shutdown();
+        return THREADS * READS_PER_THREAD * 1_000_000_000.0 / elapsed;
+    }
+
+    private void createCarts() {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (long userId = FIRST_USER_ID; userId < FIRST_USER_ID + CARTS; userId++) {
+                Cart cart = new Cart();
+                cart.setUserId(userId);
+                double totalAmount = 0;
+                for (long productId = 1; productId <= ITEMS_PER_CART; productId++) {
+                    CartItem item = new CartItem();
+                    item.setCart(cart);
+                    item.setProductId(productId);
+                    item.setProductName("Product " + productId);
+                    item.setProductPrice(1.5 * productId);
+                    item.setQuantity(2);
+                    item.calculateSubtotal();
+                    totalAmount += item.getSubtotal();
+                    cart.getItems().add(item);
+                }
+                cart.setTotalItems(2 * ITEMS_PER_CART);
+                cart.setTotalAmount(totalAmount);
+                cartRepository.save(cart);
+            }
+        });
+    }
+
+    @FunctionalInterface
+    private interface CartRead {
+        String read(long userId) throws Exception;
+    }
+}
@@ -0,0 +1,120 @@
+package com.ecommerce.cart.service;
+
+import com.ecommerce.cart.dto.AddToCartRequest;
+import com.ecommerce.cart.dto.CartItemView;
+import com.ecommerce.cart.dto.CartResponse;
+import com.ecommerce.cart.repository.CartRepository;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Many threads adding to the same cart at once, starting with the cart's very first
+// add, against a stub Product Service. Every add must succeed and none may be lost.
+@SpringBootTest
+@ActiveProfiles("test")
+class CartServiceConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int ADDS_PER_THREAD = 10;
+    private static final int USERS = 3;
+    private static final long PRODUCTS = 4;
+    private static final double PRICE = 2.5;
+
+    private static final HttpServer productService = startProductService();
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @DynamicPropertySource
+    static void productServiceUrl(DynamicPropertyRegistry registry) {
+        registry.add("product.service.url",
+                () -> "http://localhost:" + productService.getAddress().getPort() + "/products");
+    }
+
+    @AfterAll
+    static void stopProductService() {
+        productService.stop(0);
+    }
+
+    @Test
+    void concurrentAddsToOneCart() throws Exception {
+        for (long userId = 1; userId <= USERS; userId++) {
+            hammer(userId);
+
+            CartResponse cart = cartService.getCartByUserId(userId);
+            int expectedItems = THREADS * ADDS_PER_THREAD;
+            assertEquals(expectedItems, cart.getTotalItems());
+            assertEquals(expectedItems * PRICE, cart.getTotalAmount(), 0.0001);
+            assertEquals(PRODUCTS, cart.getItems().size());
+            assertEquals(expectedItems, cart.getItems().stream().mapToInt(CartItemView::quantity).sum());
+            assertTrue(cartRepository.findByUserId(userId).isPresent());
+        }
+        assertEquals(USERS, cartRepository.count());
+    }
+
+    // All threads start together, so the first adds race to create the cart
+    private void hammer(long userId) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Void>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(pool.submit((Callable<Void>) () -> {
+                start.await();
+                for (int n = 0; n < ADDS_PER_THREAD; n++) {
+                    long productId = 1 + (thread + n) % PRODUCTS;
+                    cartService.addToCart(new AddToCartRequest(userId, productId, 1));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<Void> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+    }
+
+    private static HttpServer startProductService() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.setExecutor(Executors.newFixedThreadPool(4));
+            server.createContext("/products/", exchange -> {
+                String id = exchange.getRequestURI().getPath().substring("/products/".length());
+                byte[] body = ("{\"id\":" + id + ",\"name\":\"Product " + id + "\",\"price\":" + PRICE
+                        + ",\"available\":true}").getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                exchange.getResponseBody().write(body);
+                exchange.close();
+            });
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
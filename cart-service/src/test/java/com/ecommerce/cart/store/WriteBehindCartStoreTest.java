@@ -0,0 +1,88 @@
+package com.ecommerce.cart.store;
+
+import com.ecommerce.cart.dto.AddToCartRequest;
+import com.ecommerce.cart.dto.CartItemView;
+import com.ecommerce.cart.dto.CartResponse;
+import com.ecommerce.cart.dto.ProductSnapshot;
+import com.ecommerce.cart.entity.Cart;
+import com.ecommerce.cart.entity.CartItem;
+import com.ecommerce.cart.repository.CartItemRepository;
+import com.ecommerce.cart.repository.CartRepository;
+import com.ecommerce.cart.service.CartService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+// A cart whose row was deleted by compaction while it stayed cached: the next flush
+// recreates it, and the cached items must pick up the ids of the recreated item rows.
+@SpringBootTest(properties = {"cart.write-behind.enabled=true", "cart.write-behind.flush-interval-ms=3600000"})
+@ActiveProfiles("test")
+class WriteBehindCartStoreTest {
+
+    private static final long USER_ID = 4242;
+
+    @Autowired
+    private WriteBehindCartStore store;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @MockBean
+    private CartService cartService;
+
+    @Test
+    void recreatedCartRowResetsTheCachedItemIds() {
+        when(cartService.getAvailableProduct(anyLong()))
+                .thenAnswer(call -> new ProductSnapshot(call.getArgument(0), "Product", 10.0, true));
+
+        store.addToCart(new AddToCartRequest(USER_ID, 1L, 1));
+        store.flush();
+        Long firstCartId = storedCart().getId();
+
+        // What CartCompactionJob does to an idle cart
+        transactionTemplate.executeWithoutResult(status -> {
+            cartItemRepository.deleteAllByCartIdIn(List.of(firstCartId));
+            cartRepository.deleteAllByIdIn(List.of(firstCartId));
+        });
+
+        store.addToCart(new AddToCartRequest(USER_ID, 2L, 1));
+        store.flush();
+
+        Cart recreated = storedCart();
+        assertNotEquals(firstCartId, recreated.getId());
+        Map<Long, Long> rowIds = new HashMap<>();
+        for (CartItem item : recreated.getItems()) {
+            rowIds.put(item.getProductId(), item.getId());
+        }
+        CartResponse cached = store.getCartByUserId(USER_ID);
+        assertEquals(recreated.getId(), cached.getCartId());
+        assertEquals(2, cached.getItems().size());
+        for (CartItemView item : cached.getItems()) {
+            assertEquals(rowIds.get(item.productId()), item.id(), "item id of product " + item.productId());
+        }
+    }
+
+    private Cart storedCart() {
+        List<Cart> carts = transactionTemplate.execute(status -> cartRepository.findWithItemsByUserIdIn(List.of(USER_ID)));
+        assertEquals(1, carts.size());
+        return carts.get(0);
+    }
+}
@@ -0,0 +1,51 @@
+package com.ecommerce.order.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+// Threads that wait on the card gateway for orders accepted in async checkout mode
+@Configuration
+public class PaymentExecutorConfig {
+
+    @Value("${order.payment.executor.core-size:8}")
+    private int coreSize;
+
+    @Value("${order.payment.executor.max-size:32}")
+    private int maxSize;
+
+    @Value("${order.payment.executor.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${order.payment.executor.virtual-concurrency-limit:1000}")
+    private int virtualConcurrencyLimit;
+
+    @Bean(name = "paymentExecutor")
+    public TaskExecutor paymentExecutor(Environment environment) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            // One virtual thread per payment; at the limit the submitting request thread waits for a free slot
+            SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("payment-");
+            executor.setVirtualThreads(true);
+            executor.setConcurrencyLimit(virtualConcurrencyLimit);
+            executor.setTaskTerminationTimeout(30_000);
+            return executor;
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(maxSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("payment-");
+        // With the queue full the request thread charges the card itself: intake slows down, no order is dropped
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
@@ -1,14 +1,102 @@
 package com.ecommerce.order.config;
 
+import com.ecommerce.order.resilience.ResilienceInterceptor;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.DefaultSchemePortResolver;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.URIScheme;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.URI;
+
+// RestTemplate on a pooled keep-alive Apache HttpClient with bounded waits,
+// so a slow downstream fails fast instead of holding request threads forever
 @Configuration
 public class RestTemplateConfig {
-    
+
+    @Value("${cart.service.url}")
+    private String downstreamUrl;
+
+    @Value("${http-client.max-total:200}")
+    private int maxTotal;
+
+    @Value("${http-client.max-per-route:20}")
+    private int maxPerRoute;
+
+    @Value("${http-client.cart-service.max-per-route:100}")
+    private int downstreamMaxPerRoute;
+
+    @Value("${http-client.connect-timeout-ms:1000}")
+    private long connectTimeoutMillis;
+
+    @Value("${http-client.response-timeout-ms:3000}")
+    private long responseTimeoutMillis;
+
+    @Value("${http-client.connection-request-timeout-ms:500}")
+    private long connectionRequestTimeoutMillis;
+
+    @Value("${http-client.idle-evict-seconds:30}")
+    private long idleEvictSeconds;
+
+    @Value("${http-client.time-to-live-seconds:300}")
+    private long timeToLiveSeconds;
+
+    @Bean
+    public PoolingHttpClientConnectionManager connectionManager() {
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxTotal)
+                .setMaxConnPerRoute(maxPerRoute)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMillis))
+                        .setSocketTimeout(Timeout.ofMilliseconds(responseTimeoutMillis))
+                        .setTimeToLive(TimeValue.ofSeconds(timeToLiveSeconds))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                        .build())
+                .build();
+        // Most of the traffic goes to one downstream, give its route a larger share
+        connectionManager.setMaxPerRoute(routeOf(downstreamUrl), downstreamMaxPerRoute);
+        return connectionManager;
+    }
+
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(PoolingHttpClientConnectionManager connectionManager,
+                                     ResilienceInterceptor resilienceInterceptor,
+                                     HttpClientMetrics httpClientMetrics) {
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(connectionRequestTimeoutMillis))
+                        .setResponseTimeout(Timeout.ofMilliseconds(responseTimeoutMillis))
+                        .build())
+                .evictIdleConnections(TimeValue.ofSeconds(idleEvictSeconds))
+                .evictExpiredConnections()
+                .build();
+        RestTemplate restTemplate = new RestTemplate(new HttpComponentsClientHttpRequestFactory(httpClient));
+        // Circuit breaker / bulkhead first, so rejected calls never reach the pool or the metrics
+        restTemplate.getInterceptors().add(resilienceInterceptor);
+        restTemplate.getInterceptors().add(httpClientMetrics);
+        return restTemplate;
+    }
+
+    // Helper: The route the client's planner computes for requests to this URL. A URL without
+    // an explicit port parses to port -1, while requests are routed to the scheme's default
+    // port (80/443), so the default is resolved here or the per-route limit would never match.
+    static HttpRoute routeOf(String url) {
+        HttpHost parsed = HttpHost.create(URI.create(url));
+        HttpHost target = new HttpHost(parsed.getSchemeName(), parsed.getHostName(),
+                DefaultSchemePortResolver.INSTANCE.resolve(parsed));
+        return new HttpRoute(target, null, URIScheme.HTTPS.same(target.getSchemeName()));
     }
-}
\ No newline at end of file
+}
@@ -1,8 +1,12 @@
 package com.ecommerce.order.controller;
 
+import com.ecommerce.order.dto.DownstreamStats;
+import com.ecommerce.order.dto.HttpClientStats;
+import com.ecommerce.order.dto.NotificationStats;
 import com.ecommerce.order.dto.OrderResponse;
 import com.ecommerce.order.dto.PlaceOrderRequest;
 import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.enums.OrderStatus;
 import com.ecommerce.order.service.OrderService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -17,10 +21,15 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
 
-    // Place a new order
+    // Place a new order; clients retrying on timeouts send the same Idempotency-Key
     @PostMapping("/place")
-    public ResponseEntity<OrderResponse> placeOrder(@RequestBody PlaceOrderRequest request) {
-        OrderResponse response = orderService.placeOrder(request);
+    public ResponseEntity<OrderResponse> placeOrder(@RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                                    @RequestBody PlaceOrderRequest request) {
+        OrderResponse response = orderService.placeOrder(request, idempotencyKey);
+        // Async checkout: the card payment is still running; poll /orders/track/{orderNumber}
+        if (response.getOrderStatus() == OrderStatus.PENDING) {
+            return ResponseEntity.accepted().body(response);
+        }
         return ResponseEntity.ok(response);
     }
 
@@ -44,4 +53,22 @@ public class OrderController {
         OrderResponse response = orderService.getOrderByOrderNumber(orderNumber);
         return ResponseEntity.ok(response);
     }
-}
\ No newline at end of file
+
+    // Connection pool occupancy and Cart Service call latency
+    @GetMapping("/http-client/stats")
+    public ResponseEntity<HttpClientStats> getHttpClientStats() {
+        return ResponseEntity.ok(orderService.getHttpClientStats());
+    }
+
+    // Email outbox backlog and dead letters
+    @GetMapping("/notifications/stats")
+    public ResponseEntity<NotificationStats> getNotificationStats() {
+        return ResponseEntity.ok(orderService.getNotificationStats());
+    }
+
+    // Circuit breaker and bulkhead state of each downstream
+    @GetMapping("/resilience/stats")
+    public ResponseEntity<List<DownstreamStats>> getDownstreamStats() {
+        return ResponseEntity.ok(orderService.getDownstreamStats());
+    }
+}
@@ -0,0 +1,16 @@
+package com.ecommerce.order.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DownstreamStats {
+    private String downstream;
+    private String circuitState;
+    private double failureRate;
+    private int bufferedCalls;
+    private int inFlight;
+    private long rejectedByCircuit;
+    private long rejectedByBulkhead;
+}
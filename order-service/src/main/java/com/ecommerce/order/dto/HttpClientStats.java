@@ -0,0 +1,19 @@
+package com.ecommerce.order.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HttpClientStats {
+    // Connection pool
+    private int leased;
+    private int available;
+    private int pending;
+    private int maxTotal;
+    // Outgoing requests
+    private long requests;
+    private long errors;
+    private double averageLatencyMillis;
+    private double maxLatencyMillis;
+}
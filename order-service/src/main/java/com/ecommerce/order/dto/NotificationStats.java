@@ -0,0 +1,14 @@
+package com.ecommerce.order.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NotificationStats {
+    private long pending;
+    private long deadLetters;
+    private long sent;
+    private long failedAttempts;
+    private long batches;
+}
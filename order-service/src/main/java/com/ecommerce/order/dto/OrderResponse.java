@@ -3,6 +3,7 @@ package com.ecommerce.order.dto;
 import com.ecommerce.order.entity.OrderItem;
 import com.ecommerce.order.enums.OrderStatus;
 import com.ecommerce.order.enums.PaymentMethod;
+import com.ecommerce.order.enums.PaymentStatus;
 import lombok.*;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -24,5 +25,6 @@ public class OrderResponse {
     private LocalDate estimatedDeliveryDate;
     private List<OrderItem> orderItems;
     private PaymentMethod paymentMethod;
+    private PaymentStatus paymentStatus;
     private String message;
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.ecommerce.order.entity;
 
 import com.ecommerce.order.enums.OrderStatus;
+import com.ecommerce.order.id.SnowflakeId;
 import jakarta.persistence.*;
 import lombok.*;
 import java.time.LocalDate;
@@ -15,7 +16,7 @@ import java.util.List;
 @AllArgsConstructor
 public class Order {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
 
     @Column(name = "order_number", unique = true, nullable = false)
@@ -2,6 +2,7 @@ package com.ecommerce.order.entity;
 
 import com.ecommerce.order.enums.PaymentMethod;
 import com.ecommerce.order.enums.PaymentStatus;
+import com.ecommerce.order.id.SnowflakeId;
 import jakarta.persistence.*;
 import lombok.*;
 import java.time.LocalDateTime;
@@ -13,7 +14,7 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class Payment {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
 
     @OneToOne
@@ -0,0 +1,6 @@
+package com.ecommerce.order.enums;
+
+public enum IdempotencyStatus {
+    IN_PROGRESS,
+    COMPLETED
+}
@@ -0,0 +1,7 @@
+package com.ecommerce.order.enums;
+
+public enum NotificationStatus {
+    PENDING,
+    SENT,
+    DEAD
+}
@@ -2,7 +2,11 @@ package com.ecommerce.order.enums;
 
 public enum PaymentStatus {
     PENDING,
+    // Claimed by a payment worker; the card gateway call is in flight
+    PROCESSING,
     COMPLETED,
     FAILED,
+    // Charged after the order was already cancelled; the money must be returned
+    REFUND_REQUIRED,
     REFUNDED
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.ecommerce.order.id;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Entity id assigned from SnowflakeIdGenerator before insert. Unlike IDENTITY keys,
+// Hibernate knows the id without executing the INSERT, so inserts can be JDBC-batched.
+@IdGeneratorType(SnowflakeIdentifierGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface SnowflakeId {
+}
@@ -0,0 +1,48 @@
+package com.ecommerce.order.id;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Lock-free, time-ordered 64-bit ids (Snowflake layout):
+//   41 bits milliseconds since 2024-01-01 | 10 bits node id | 12 bits sequence
+// Ids from one node strictly increase and sort by creation time; different nodes
+// never collide as long as each instance runs with its own order.id.node-id.
+// The last (timestamp, sequence) pair lives in one AtomicLong advanced by CAS. More
+// than 4096 ids in a millisecond, or a clock that steps back, borrow the next
+// millisecond instead of blocking, so the id clock may briefly run ahead of the wall clock.
+@Component
+public class SnowflakeIdGenerator {
+
+    private static final long EPOCH = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+
+    private final long nodeId;
+    // (milliseconds since EPOCH << SEQUENCE_BITS) | sequence of the last id handed out
+    private final AtomicLong last = new AtomicLong();
+
+    public SnowflakeIdGenerator(@Value("${order.id.node-id:0}") long nodeId) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("order.id.node-id must be between 0 and " + MAX_NODE_ID + ", was " + nodeId);
+        }
+        this.nodeId = nodeId;
+    }
+
+    public long nextId() {
+        long now = System.currentTimeMillis() - EPOCH;
+        long next = last.updateAndGet(previous -> {
+            if (now > previous >>> SEQUENCE_BITS) {
+                return now << SEQUENCE_BITS;
+            }
+            // Same millisecond (or clock went back): next sequence, overflowing into the next millisecond
+            return previous + 1;
+        });
+        return (next >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS)
+                | nodeId << SEQUENCE_BITS
+                | next & ((1L << SEQUENCE_BITS) - 1);
+    }
+}
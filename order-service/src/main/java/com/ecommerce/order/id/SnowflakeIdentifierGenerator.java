@@ -0,0 +1,26 @@
+package com.ecommerce.order.id;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.id.factory.spi.CustomIdGeneratorCreationContext;
+import org.hibernate.resource.beans.spi.ManagedBean;
+import org.hibernate.resource.beans.spi.ManagedBeanRegistry;
+
+import java.lang.reflect.Member;
+
+// Hibernate side of @SnowflakeId. Hibernate resolves beans through Spring's bean
+// container, so every entity shares the application's SnowflakeIdGenerator.
+public class SnowflakeIdentifierGenerator implements IdentifierGenerator {
+
+    private final ManagedBean<SnowflakeIdGenerator> generator;
+
+    public SnowflakeIdentifierGenerator(SnowflakeId config, Member member, CustomIdGeneratorCreationContext context) {
+        this.generator = context.getServiceRegistry().requireService(ManagedBeanRegistry.class)
+                .getBean(SnowflakeIdGenerator.class);
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object entity) {
+        return generator.getBeanInstance().nextId();
+    }
+}
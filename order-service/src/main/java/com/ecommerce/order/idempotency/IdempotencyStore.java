@@ -0,0 +1,215 @@
+package com.ecommerce.order.idempotency;
+
+import com.ecommerce.order.dto.OrderResponse;
+import com.ecommerce.order.entity.IdempotencyRecord;
+import com.ecommerce.order.enums.IdempotencyStatus;
+import com.ecommerce.order.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+// Runs an operation at most once per Idempotency-Key and replays its response.
+// The key is claimed in idempotency_keys before the operation runs and holds the
+// serialized response once it completes, until ttl-hours later. Duplicates arriving
+// while the first execution runs wait for it: on the same instance through the
+// in-flight future, on other instances by polling the row. A failed execution
+// releases its key so the client can retry.
+@Component
+public class IdempotencyStore {
+
+    private static final int MAX_KEY_LENGTH = 100;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${order.idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${order.idempotency.wait-timeout-ms:30000}")
+    private long waitTimeoutMillis;
+
+    @Value("${order.idempotency.poll-interval-ms:100}")
+    private long pollIntervalMillis;
+
+    @Value("${order.idempotency.abandon-after-seconds:300}")
+    private long abandonAfterSeconds;
+
+    private final ConcurrentHashMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+
+    public OrderResponse execute(String key, Object request, Supplier<OrderResponse> operation) {
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Idempotency-Key must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+        String requestHash = hash(request);
+
+        InFlight execution = new InFlight(requestHash, new CompletableFuture<>());
+        InFlight running = inFlight.putIfAbsent(key, execution);
+        if (running != null) {
+            if (!requestHash.equals(running.requestHash())) {
+                throw differentRequest(key);
+            }
+            return await(running.future());
+        }
+        try {
+            OrderResponse response = executeOnce(key, requestHash, operation);
+            execution.future().complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            execution.future().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, execution);
+        }
+    }
+
+    // Drop keys past their TTL, a chunk at a time
+    @Scheduled(fixedDelayString = "${order.idempotency.cleanup-interval-ms:3600000}")
+    public void deleteExpiredKeys() {
+        LocalDateTime now = LocalDateTime.now();
+        Integer deleted;
+        do {
+            deleted = transactionTemplate.execute(status -> idempotencyRecordRepository.deleteExpired(now, 1000));
+        } while (deleted != null && deleted == 1000);
+    }
+
+    private OrderResponse executeOnce(String key, String requestHash, Supplier<OrderResponse> operation) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitTimeoutMillis);
+        String owner = UUID.randomUUID().toString();
+        while (true) {
+            IdempotencyRecord record = transactionTemplate.execute(status -> claim(key, owner, requestHash));
+            if (!requestHash.equals(record.getRequestHash())) {
+                throw differentRequest(key);
+            }
+            if (record.getStatus() == IdempotencyStatus.COMPLETED) {
+                return read(record.getResponseBody());
+            }
+            if (owner.equals(record.getOwnerToken())) {
+                return run(key, owner, operation);
+            }
+            // Another instance is running this request
+            if (System.nanoTime() > deadline) {
+                throw new IdempotencyConflictException("Request with Idempotency-Key " + key + " is still being processed");
+            }
+            sleep(pollIntervalMillis);
+        }
+    }
+
+    // Helper: Take the key unless a live execution or an unexpired response holds it
+    private IdempotencyRecord claim(String key, String owner, String requestHash) {
+        LocalDateTime now = LocalDateTime.now();
+        idempotencyRecordRepository.insertIfAbsent(key, owner, requestHash, now, now.plusHours(ttlHours));
+        IdempotencyRecord record = idempotencyRecordRepository.findLockedByKey(key)
+                .orElseThrow(() -> new RuntimeException("Idempotency-Key " + key + " vanished while claiming it"));
+        boolean expired = record.getExpiresAt().isBefore(now);
+        boolean abandoned = record.getStatus() == IdempotencyStatus.IN_PROGRESS
+                && record.getCreatedAt().isBefore(now.minusSeconds(abandonAfterSeconds));
+        if (expired || abandoned) {
+            record.setOwnerToken(owner);
+            record.setRequestHash(requestHash);
+            record.setStatus(IdempotencyStatus.IN_PROGRESS);
+            record.setResponseBody(null);
+            record.setCreatedAt(now);
+            record.setExpiresAt(now.plusHours(ttlHours));
+        }
+        return record;
+    }
+
+    // Helper: Run the operation as owner of the key and store its response
+    private OrderResponse run(String key, String owner, Supplier<OrderResponse> operation) {
+        OrderResponse response;
+        try {
+            response = operation.get();
+        } catch (RuntimeException e) {
+            transactionTemplate.executeWithoutResult(status -> idempotencyRecordRepository.release(key, owner));
+            throw e;
+        }
+        String body = write(response);
+        transactionTemplate.executeWithoutResult(status -> idempotencyRecordRepository.complete(key, owner, body));
+        return response;
+    }
+
+    private OrderResponse await(CompletableFuture<OrderResponse> running) {
+        try {
+            return running.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IdempotencyConflictException("Request with this Idempotency-Key is still being processed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the original request");
+        }
+    }
+
+    private static IdempotencyConflictException differentRequest(String key) {
+        return new IdempotencyConflictException("Idempotency-Key " + key + " was already used for a different request");
+    }
+
+    private String hash(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(objectMapper.writeValueAsString(request).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new RuntimeException("Error fingerprinting request: " + e.getMessage());
+        }
+    }
+
+    private String write(OrderResponse response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Error storing idempotent response: " + e.getMessage());
+        }
+    }
+
+    private OrderResponse read(String body) {
+        try {
+            return objectMapper.readValue(body, OrderResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Error reading idempotent response: " + e.getMessage());
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the original request");
+        }
+    }
+
+    // An execution running on this instance, with the fingerprint of the request it serves
+    private record InFlight(String requestHash, CompletableFuture<OrderResponse> future) {
+    }
+}
@@ -0,0 +1,186 @@
+package com.ecommerce.order.notification;
+
+import com.ecommerce.order.dto.NotificationStats;
+import com.ecommerce.order.entity.NotificationOutbox;
+import com.ecommerce.order.enums.NotificationStatus;
+import com.ecommerce.order.repository.NotificationOutboxRepository;
+import jakarta.mail.internet.MimeMessage;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailParseException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMailMessage;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Drains the notification outbox. Due rows are claimed in batches (a short
+// transaction pushes their next attempt out by lease-seconds, so concurrent
+// dispatchers skip them), each batch goes out over one SMTP connection, and the
+// outcome is written back in a second transaction. Failed emails are retried
+// with exponential backoff; after max-attempts they stay in the table as DEAD.
+@Component
+public class NotificationDispatcher {
+
+    @Autowired
+    private NotificationOutboxRepository notificationOutboxRepository;
+
+    @Autowired
+    private JavaMailSender mailSender;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${order.notification.from:}")
+    private String sender;
+
+    @Value("${order.notification.batch-size:50}")
+    private int batchSize;
+
+    @Value("${order.notification.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${order.notification.backoff-base-seconds:30}")
+    private long backoffBaseSeconds;
+
+    @Value("${order.notification.backoff-max-seconds:3600}")
+    private long backoffMaxSeconds;
+
+    @Value("${order.notification.lease-seconds:120}")
+    private long leaseSeconds;
+
+    @Value("${order.notification.sent-retention-days:7}")
+    private long sentRetentionDays;
+
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong failedAttempts = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+
+    @Scheduled(fixedDelayString = "${order.notification.dispatch-interval-ms:1000}")
+    public void dispatch() {
+        while (true) {
+            List<NotificationOutbox> batch = transactionTemplate.execute(status -> claimBatch());
+            if (batch == null || batch.isEmpty()) {
+                return;
+            }
+            Map<Long, String> failures = send(batch);
+            transactionTemplate.executeWithoutResult(status -> recordOutcome(batch, failures));
+            batches.incrementAndGet();
+            if (batch.size() < batchSize) {
+                return;
+            }
+        }
+    }
+
+    // Drop delivered notifications past their retention, a chunk at a time
+    @Scheduled(fixedDelayString = "${order.notification.cleanup-interval-ms:3600000}")
+    public void deleteOldSentNotifications() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(sentRetentionDays);
+        Integer deleted;
+        do {
+            deleted = transactionTemplate.execute(status -> notificationOutboxRepository.deleteSentBefore(cutoff, 1000));
+        } while (deleted != null && deleted == 1000);
+    }
+
+    public NotificationStats getStats() {
+        return new NotificationStats(notificationOutboxRepository.countByStatus(NotificationStatus.PENDING),
+                notificationOutboxRepository.countByStatus(NotificationStatus.DEAD),
+                sent.get(), failedAttempts.get(), batches.get());
+    }
+
+    // Helper: Lock due rows and lease them to this dispatcher
+    private List<NotificationOutbox> claimBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> ids = notificationOutboxRepository.lockDueIds(now, batchSize);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<NotificationOutbox> batch = notificationOutboxRepository.findAllById(ids);
+        for (NotificationOutbox notification : batch) {
+            notification.setNextAttemptAt(now.plusSeconds(leaseSeconds));
+        }
+        return batch;
+    }
+
+    // Helper: Send a batch over one connection; returns the error of every email that failed.
+    // An email that cannot even be built (e.g. a malformed recipient) fails on its own
+    // instead of failing the whole batch.
+    private Map<Long, String> send(List<NotificationOutbox> batch) {
+        Map<Long, String> failures = new HashMap<>();
+        Map<MimeMessage, NotificationOutbox> byMessage = new IdentityHashMap<>();
+        List<MimeMessage> messages = new ArrayList<>(batch.size());
+        for (NotificationOutbox notification : batch) {
+            MimeMailMessage message = new MimeMailMessage(mailSender.createMimeMessage());
+            try {
+                if (!sender.isBlank()) {
+                    message.setFrom(sender);
+                }
+                message.setTo(notification.getRecipient());
+                message.setSubject(notification.getSubject());
+                message.setText(notification.getBody());
+            } catch (MailParseException e) {
+                failures.put(notification.getId(), e.getMessage());
+                continue;
+            }
+            messages.add(message.getMimeMessage());
+            byMessage.put(message.getMimeMessage(), notification);
+        }
+        if (messages.isEmpty()) {
+            return failures;
+        }
+
+        try {
+            mailSender.send(messages.toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            if (e.getFailedMessages().isEmpty()) {
+                byMessage.values().forEach(notification -> failures.put(notification.getId(), e.getMessage()));
+            }
+            e.getFailedMessages().forEach((message, error) -> {
+                NotificationOutbox notification = byMessage.get(message);
+                if (notification != null) {
+                    failures.put(notification.getId(), error.getMessage());
+                }
+            });
+        } catch (MailException e) {
+            // Connection or authentication failure: nothing was sent
+            byMessage.values().forEach(notification -> failures.put(notification.getId(), e.getMessage()));
+        }
+        return failures;
+    }
+
+    // Helper: Mark sent emails, reschedule failed ones with backoff, dead-letter exhausted ones
+    private void recordOutcome(List<NotificationOutbox> batch, Map<Long, String> failures) {
+        LocalDateTime now = LocalDateTime.now();
+        for (NotificationOutbox notification : batch) {
+            notification.setAttempts(notification.getAttempts() + 1);
+            String error = failures.get(notification.getId());
+            if (error == null) {
+                notification.setStatus(NotificationStatus.SENT);
+                notification.setSentAt(now);
+                notification.setLastError(null);
+                sent.incrementAndGet();
+                continue;
+            }
+            failedAttempts.incrementAndGet();
+            notification.setLastError(error.length() > 1000 ? error.substring(0, 1000) : error);
+            if (notification.getAttempts() >= maxAttempts) {
+                notification.setStatus(NotificationStatus.DEAD);
+                System.err.println("❌ Email for order " + notification.getOrderId() + " moved to dead letters: " + error);
+            } else {
+                long delay = Math.min(backoffMaxSeconds, backoffBaseSeconds << Math.min(20, notification.getAttempts() - 1));
+                notification.setNextAttemptAt(now.plusSeconds(delay));
+            }
+        }
+        notificationOutboxRepository.saveAll(batch);
+    }
+}
@@ -0,0 +1,40 @@
+package com.ecommerce.order.repository;
+
+import com.ecommerce.order.entity.IdempotencyRecord;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+    // Creates the key as IN_PROGRESS unless it already exists
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (idempotency_key, owner_token, request_hash, status, created_at, expires_at) "
+            + "VALUES (:key, :owner, :hash, 'IN_PROGRESS', :now, :expiresAt) "
+            + "ON DUPLICATE KEY UPDATE idempotency_key = idempotency_key", nativeQuery = true)
+    void insertIfAbsent(@Param("key") String key, @Param("owner") String owner, @Param("hash") String hash,
+                        @Param("now") LocalDateTime now, @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM IdempotencyRecord r WHERE r.idempotencyKey = :key")
+    Optional<IdempotencyRecord> findLockedByKey(@Param("key") String key);
+
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.status = com.ecommerce.order.enums.IdempotencyStatus.COMPLETED, "
+            + "r.responseBody = :body WHERE r.idempotencyKey = :key AND r.ownerToken = :owner")
+    int complete(@Param("key") String key, @Param("owner") String owner, @Param("body") String body);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.idempotencyKey = :key AND r.ownerToken = :owner")
+    int release(@Param("key") String key, @Param("owner") String owner);
+
+    @Modifying
+    @Query(value = "DELETE FROM idempotency_keys WHERE expires_at < :now LIMIT :limit", nativeQuery = true)
+    int deleteExpired(@Param("now") LocalDateTime now, @Param("limit") int limit);
+}
@@ -1,11 +1,30 @@
 package com.ecommerce.order.repository;
 
 import com.ecommerce.order.entity.Payment;
+import com.ecommerce.order.enums.PaymentMethod;
+import com.ecommerce.order.enums.PaymentStatus;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
     Optional<Payment> findByOrderId(Long orderId);
+
+    // Locked so the payment worker and the stale-payment sweeper cannot both settle a payment
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Payment p WHERE p.order.id = :orderId")
+    Optional<Payment> findLockedByOrderId(@Param("orderId") Long orderId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Payment> findByPaymentMethodAndPaymentStatusInAndPaymentDateBefore(PaymentMethod paymentMethod,
+                                                                           Collection<PaymentStatus> paymentStatuses,
+                                                                           LocalDateTime cutoff);
 }
\ No newline at end of file
@@ -0,0 +1,177 @@
+package com.ecommerce.order.resilience;
+
+import com.ecommerce.order.dto.DownstreamStats;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Circuit breaker plus concurrency bulkhead for one downstream.
+// The breaker records the outcome of the last window-size calls; once at least
+// minimum-calls are recorded and the failure rate reaches the threshold it opens
+// and rejects calls for open-seconds. Then a few trial calls are let through
+// (half-open): if they all succeed it closes, any failure opens it again.
+// The bulkhead caps concurrent calls so a slow downstream can only tie up that
+// many request threads; callers wait at most max-wait-ms for a permit.
+public class DownstreamGuard {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String name;
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final int maxConcurrentCalls;
+    private final long maxWaitMillis;
+    private final Semaphore bulkhead;
+
+    // Guarded by this
+    private final boolean[] outcomes;
+    private int position;
+    private int recorded;
+    private int failures;
+    private State state = State.CLOSED;
+    private long openUntil;
+    private int trialsStarted;
+    private int trialsSucceeded;
+
+    private final AtomicLong rejectedByCircuit = new AtomicLong();
+    private final AtomicLong rejectedByBulkhead = new AtomicLong();
+
+    public DownstreamGuard(String name, int windowSize, int minimumCalls, double failureRateThreshold,
+                           long openSeconds, int halfOpenCalls, int maxConcurrentCalls, long maxWaitMillis) {
+        this.name = name;
+        this.windowSize = windowSize;
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = TimeUnit.SECONDS.toNanos(openSeconds);
+        this.halfOpenCalls = halfOpenCalls;
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.maxWaitMillis = maxWaitMillis;
+        this.outcomes = new boolean[windowSize];
+        this.bulkhead = new Semaphore(maxConcurrentCalls);
+    }
+
+    // Takes a permit for one call; every successful acquire must be followed by onSuccess or onFailure
+    public void acquire() {
+        if (!allowCall()) {
+            rejectedByCircuit.incrementAndGet();
+            throw new DownstreamUnavailableException(name + " is unavailable (circuit open)");
+        }
+        boolean permitted;
+        try {
+            permitted = bulkhead.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            permitted = false;
+        }
+        if (!permitted) {
+            releaseTrial();
+            rejectedByBulkhead.incrementAndGet();
+            throw new DownstreamUnavailableException(name + " is busy (" + maxConcurrentCalls + " calls in flight)");
+        }
+    }
+
+    public void onSuccess() {
+        bulkhead.release();
+        synchronized (this) {
+            if (state == State.HALF_OPEN) {
+                if (++trialsSucceeded >= halfOpenCalls) {
+                    close();
+                }
+            } else if (state == State.CLOSED) {
+                record(false);
+            }
+        }
+    }
+
+    public void onFailure() {
+        bulkhead.release();
+        synchronized (this) {
+            if (state == State.HALF_OPEN) {
+                open();
+            } else if (state == State.CLOSED) {
+                record(true);
+                if (recorded >= minimumCalls && failureRate() >= failureRateThreshold) {
+                    open();
+                }
+            }
+        }
+    }
+
+    public synchronized DownstreamStats getStats() {
+        return new DownstreamStats(name, currentState().name(), failureRate(), recorded,
+                maxConcurrentCalls - bulkhead.availablePermits(), rejectedByCircuit.get(), rejectedByBulkhead.get());
+    }
+
+    private synchronized boolean allowCall() {
+        State current = currentState();
+        if (current == State.OPEN) {
+            return false;
+        }
+        if (current == State.HALF_OPEN) {
+            if (trialsStarted >= halfOpenCalls) {
+                return false;
+            }
+            trialsStarted++;
+        }
+        return true;
+    }
+
+    // A trial call that never reached the downstream frees its slot
+    private synchronized void releaseTrial() {
+        if (state == State.HALF_OPEN && trialsStarted > 0) {
+            trialsStarted--;
+        }
+    }
+
+    // Must hold this. An open circuit turns half-open once its wait is over.
+    private State currentState() {
+        if (state == State.OPEN && System.nanoTime() - openUntil >= 0) {
+            state = State.HALF_OPEN;
+            trialsStarted = 0;
+            trialsSucceeded = 0;
+        }
+        return state;
+    }
+
+    // Must hold this
+    private void record(boolean failed) {
+        if (recorded == windowSize) {
+            if (outcomes[position]) {
+                failures--;
+            }
+        } else {
+            recorded++;
+        }
+        outcomes[position] = failed;
+        if (failed) {
+            failures++;
+        }
+        position = (position + 1) % windowSize;
+    }
+
+    private double failureRate() {
+        return recorded == 0 ? 0.0 : failures * 100.0 / recorded;
+    }
+
+    // Must hold this
+    private void open() {
+        if (state != State.OPEN) {
+            System.err.println("❌ Circuit for " + name + " opened");
+        }
+        state = State.OPEN;
+        openUntil = System.nanoTime() + openNanos;
+    }
+
+    // Must hold this
+    private void close() {
+        state = State.CLOSED;
+        position = 0;
+        recorded = 0;
+        failures = 0;
+        System.out.println("✅ Circuit for " + name + " closed");
+    }
+}
@@ -1,31 +1,34 @@
 package com.ecommerce.order.service;
 
+import com.ecommerce.order.entity.NotificationOutbox;
 import com.ecommerce.order.entity.Order;
 import com.ecommerce.order.entity.OrderItem;
+import com.ecommerce.order.enums.NotificationStatus;
+import com.ecommerce.order.repository.NotificationOutboxRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+
 @Service
 public class NotificationService {
 
     @Autowired
-    private JavaMailSender mailSender;
+    private NotificationOutboxRepository notificationOutboxRepository;
 
-    public void sendOrderConfirmationEmail(Order order) {
-        try {
-            SimpleMailMessage message = new SimpleMailMessage();
-            message.setTo(order.getCustomerEmail());
-            message.setSubject("Order Confirmation - " + order.getOrderNumber());
-            message.setText(buildEmailContent(order));
-            
-            mailSender.send(message);
-            System.out.println("✅ Order confirmation email sent to: " + order.getCustomerEmail());
-        } catch (Exception e) {
-            System.err.println("❌ Failed to send email: " + e.getMessage());
-            // Don't throw exception - order should still be placed even if email fails
-        }
+    // Queue the confirmation email in the outbox. Call inside the transaction that
+    // confirms the order so the email exists exactly when the confirmation commits;
+    // NotificationDispatcher sends it afterwards.
+    public void enqueueOrderConfirmationEmail(Order order) {
+        NotificationOutbox notification = new NotificationOutbox();
+        notification.setOrderId(order.getId());
+        notification.setRecipient(order.getCustomerEmail());
+        notification.setSubject("Order Confirmation - " + order.getOrderNumber());
+        notification.setBody(buildEmailContent(order));
+        notification.setStatus(NotificationStatus.PENDING);
+        notification.setAttempts(0);
+        notification.setNextAttemptAt(LocalDateTime.now());
+        notificationOutboxRepository.save(notification);
     }
 
     private String buildEmailContent(Order order) {
@@ -61,4 +64,4 @@ public class NotificationService {
         
         return content.toString();
     }
-}
\ No newline at end of file
+}
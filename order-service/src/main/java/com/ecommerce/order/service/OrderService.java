@@ -1,24 +1,41 @@
 package com.ecommerce.order.service;
 
+import com.ecommerce.order.config.HttpClientMetrics;
+import com.ecommerce.order.dto.DownstreamStats;
+import com.ecommerce.order.dto.HttpClientStats;
+import com.ecommerce.order.dto.NotificationStats;
 import com.ecommerce.order.dto.OrderResponse;
 import com.ecommerce.order.dto.PlaceOrderRequest;
 import com.ecommerce.order.entity.Order;
 import com.ecommerce.order.entity.OrderItem;
 import com.ecommerce.order.entity.Payment;
 import com.ecommerce.order.enums.OrderStatus;
+import com.ecommerce.order.enums.PaymentMethod;
 import com.ecommerce.order.enums.PaymentStatus;
+import com.ecommerce.order.id.SnowflakeIdGenerator;
+import com.ecommerce.order.idempotency.IdempotencyStore;
+import com.ecommerce.order.notification.NotificationDispatcher;
 import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.order.repository.PaymentRepository;
+import com.ecommerce.order.resilience.DownstreamUnavailableException;
+import com.ecommerce.order.resilience.ResilienceInterceptor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.client.RestTemplate;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
-import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 @Service
 public class OrderService {
@@ -35,10 +52,52 @@ public class OrderService {
     @Autowired
     private RestTemplate restTemplate;
 
+    @Autowired
+    private HttpClientMetrics httpClientMetrics;
+
+    @Autowired
+    private ResilienceInterceptor resilienceInterceptor;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private NotificationDispatcher notificationDispatcher;
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Autowired
+    private SnowflakeIdGenerator snowflakeIdGenerator;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    @Qualifier("paymentExecutor")
+    private Executor paymentExecutor;
+
     @Value("${cart.service.url}")
     private String cartServiceUrl;
 
-    @Transactional
+    @Value("${order.checkout.async:false}")
+    private boolean asyncCheckout;
+
+    @Value("${order.payment.pending-timeout-minutes:10}")
+    private long pendingPaymentTimeoutMinutes;
+
+    // Place an order at most once per Idempotency-Key: a retry or concurrent duplicate with the
+    // same key gets the stored response of the first placement instead of a second order
+    public OrderResponse placeOrder(PlaceOrderRequest request, String idempotencyKey) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return placeOrder(request);
+        }
+        return idempotencyStore.execute(idempotencyKey.trim(), request, () -> placeOrder(request));
+    }
+
+    // Place an order. The order and its payment are written in short transactions, and the
+    // card gateway is called with no transaction or DB connection held. In async checkout
+    // mode a card order is returned PENDING and its payment completes on paymentExecutor.
     public OrderResponse placeOrder(PlaceOrderRequest request) {
         // Step 1: Get cart items from Cart Service
         Map<String, Object> cartData = getCartFromService(request.getUserId());
@@ -53,6 +112,8 @@ public class OrderService {
             throw new RuntimeException("Cart is empty. Cannot place order.");
         }
 
+        paymentService.validatePaymentDetails(request);
+
         Double totalAmount = (Double) cartData.get("totalAmount");
 
         // Step 2: Create Order
@@ -78,51 +139,157 @@ public class OrderService {
             order.getOrderItems().add(orderItem);
         }
 
-        // Save order first (to get order ID)
-        order = orderRepository.save(order);
-
-        // Step 4: Process Payment
-        Payment payment = paymentService.processPayment(order, request);
-        order.setPayment(payment);
+        // Step 4: Save the order with a pending payment
+        Order placed = transactionTemplate.execute(status -> {
+            Order saved = orderRepository.save(order);
+            saved.setPayment(paymentService.createPayment(saved, request));
+            if (request.getPaymentMethod() != PaymentMethod.CARD) {
+                saved.setOrderStatus(OrderStatus.CONFIRMED); // COD is also confirmed
+                notificationService.enqueueOrderConfirmationEmail(saved);
+            }
+            return orderRepository.save(saved);
+        });
 
-        // Step 5: Update order status based on payment
-        if (payment.getPaymentStatus() == PaymentStatus.COMPLETED) {
-            order.setOrderStatus(OrderStatus.CONFIRMED);
-        } else if (payment.getPaymentStatus() == PaymentStatus.PENDING) {
-            order.setOrderStatus(OrderStatus.CONFIRMED); // COD is also confirmed
+        if (request.getPaymentMethod() != PaymentMethod.CARD) {
+            // Step 6: Clear Cart
+            clearCartFromService(placed.getUserId());
+            return buildOrderResponse(placed, "Order placed successfully!");
         }
 
-        order = orderRepository.save(order);
-
-        // Step 6: Clear Cart
-        clearCartFromService(request.getUserId());
-
-        // Step 7: Send Email Notification
-        notificationService.sendOrderConfirmationEmail(order);
-
-        // Step 8: Build Response
-        return buildOrderResponse(order, "Order placed successfully!");
+        // Step 5: Charge the card, in the background in async checkout mode
+        Order completed;
+        if (asyncCheckout) {
+            CompletableFuture<Order> payment = CompletableFuture.supplyAsync(
+                    () -> completeCardPayment(placed.getId(), request), paymentExecutor);
+            payment.whenComplete((paid, e) -> {
+                if (e != null) {
+                    System.err.println("❌ Payment of order " + placed.getOrderNumber() + " failed: " + e.getMessage());
+                }
+            });
+            // With the executor's queue full the payment ran on this thread (CallerRunsPolicy)
+            // and is already settled: answer with its outcome, not the PENDING snapshot
+            if (!payment.isDone()) {
+                return buildOrderResponse(placed, "Order received. Payment is being processed.");
+            }
+            try {
+                completed = payment.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        } else {
+            completed = completeCardPayment(placed.getId(), request);
+        }
+        if (completed.getOrderStatus() != OrderStatus.CONFIRMED) {
+            throw new RuntimeException("Card payment failed. Please check your card details.");
+        }
+        return buildOrderResponse(completed, "Order placed successfully!");
     }
 
+    @Transactional(readOnly = true)
     public OrderResponse getOrderById(Long orderId) {
-        Order order = orderRepository.findById(orderId)
+        Order order = orderRepository.findWithItemsById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found with ID: " + orderId));
         return buildOrderResponse(order, null);
     }
 
+    @Transactional(readOnly = true)
     public List<Order> getOrdersByUserId(Long userId) {
-        return orderRepository.findByUserId(userId);
+        return orderRepository.findWithItemsByUserId(userId);
     }
 
+    // Poll here for the outcome of an order accepted with 202
+    @Transactional(readOnly = true)
     public OrderResponse getOrderByOrderNumber(String orderNumber) {
-        Order order = orderRepository.findByOrderNumber(orderNumber)
+        Order order = orderRepository.findWithItemsByOrderNumber(orderNumber)
                 .orElseThrow(() -> new RuntimeException("Order not found with number: " + orderNumber));
         return buildOrderResponse(order, null);
     }
 
+    // Give up on card payments whose worker never reported back (e.g. the instance stopped).
+    // A charge that still succeeds afterwards is recorded as REFUND_REQUIRED by completeCardPayment.
+    @Scheduled(fixedDelayString = "${order.payment.expire-check-interval-ms:60000}")
+    @Transactional
+    public void expireStaleCardPayments() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(pendingPaymentTimeoutMinutes);
+        List<Payment> stale = paymentRepository.findByPaymentMethodAndPaymentStatusInAndPaymentDateBefore(
+                PaymentMethod.CARD, List.of(PaymentStatus.PENDING, PaymentStatus.PROCESSING), cutoff);
+        for (Payment payment : stale) {
+            payment.setPaymentStatus(PaymentStatus.FAILED);
+            payment.getOrder().setOrderStatus(OrderStatus.CANCELLED);
+            System.err.println("❌ Card payment of order " + payment.getOrder().getOrderNumber() + " timed out");
+        }
+    }
+
+    // Outgoing HTTP pool and latency statistics
+    public HttpClientStats getHttpClientStats() {
+        return httpClientMetrics.getStats();
+    }
+
+    // Outbox backlog, dead letters and delivery counters of order emails
+    public NotificationStats getNotificationStats() {
+        return notificationDispatcher.getStats();
+    }
+
+    // Circuit breaker / bulkhead state per downstream
+    public List<DownstreamStats> getDownstreamStats() {
+        return resilienceInterceptor.getStats();
+    }
+
+    // Helper: Claim the payment, call the card gateway, then record the result in a short transaction
+    private Order completeCardPayment(Long orderId, PlaceOrderRequest request) {
+        // Claim under the row lock before charging, so an order the sweeper already cancelled is never charged
+        Boolean claimed = transactionTemplate.execute(status -> {
+            Payment payment = findLockedPayment(orderId);
+            if (payment.getPaymentStatus() != PaymentStatus.PENDING) {
+                return false;
+            }
+            payment.setPaymentStatus(PaymentStatus.PROCESSING);
+            return true;
+        });
+        if (!Boolean.TRUE.equals(claimed)) {
+            return orderRepository.findWithItemsById(orderId)
+                    .orElseThrow(() -> new RuntimeException("Order not found with ID: " + orderId));
+        }
+
+        boolean success = paymentService.processCardPayment(request);
+
+        Order order = transactionTemplate.execute(status -> {
+            Payment payment = findLockedPayment(orderId);
+            Order stored = orderRepository.findWithItemsById(orderId)
+                    .orElseThrow(() -> new RuntimeException("Order not found with ID: " + orderId));
+            // Expired by the sweeper while the gateway call was in flight
+            if (payment.getPaymentStatus() != PaymentStatus.PROCESSING) {
+                if (success) {
+                    paymentService.requireRefund(payment, request.getCardNumber());
+                    System.err.println("❌ Card of cancelled order " + stored.getOrderNumber()
+                            + " was charged, refund required");
+                }
+                return stored;
+            }
+            paymentService.completeCardPayment(payment, success, request.getCardNumber());
+            stored.setOrderStatus(success ? OrderStatus.CONFIRMED : OrderStatus.CANCELLED);
+            if (success) {
+                notificationService.enqueueOrderConfirmationEmail(stored);
+            }
+            return stored;
+        });
+
+        if (order.getOrderStatus() == OrderStatus.CONFIRMED) {
+            // Step 6: Clear Cart
+            clearCartFromService(order.getUserId());
+        }
+        return order;
+    }
+
+    // Helper: Payment of an order, row-locked until the transaction ends
+    private Payment findLockedPayment(Long orderId) {
+        return paymentRepository.findLockedByOrderId(orderId)
+                .orElseThrow(() -> new RuntimeException("Payment not found for order: " + orderId));
+    }
+
     // Helper: Generate unique order number
     private String generateOrderNumber() {
-        return "ORD" + System.currentTimeMillis() + UUID.randomUUID().toString().substring(0, 4).toUpperCase();
+        return "ORD" + snowflakeIdGenerator.nextId();
     }
 
     // Helper: Calculate delivery date (4-9 days from now)
@@ -137,6 +304,9 @@ public class OrderService {
         try {
             String url = cartServiceUrl + "/" + userId;
             return restTemplate.getForObject(url, Map.class);
+        } catch (DownstreamUnavailableException e) {
+            // No safe fallback for a cart about to be ordered: fail fast with 503
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("Error fetching cart from Cart Service: " + e.getMessage());
         }
@@ -167,6 +337,7 @@ public class OrderService {
         response.setEstimatedDeliveryDate(order.getEstimatedDeliveryDate());
         response.setOrderItems(order.getOrderItems());
         response.setPaymentMethod(order.getPayment().getPaymentMethod());
+        response.setPaymentStatus(order.getPayment().getPaymentStatus());
         response.setMessage(message);
         return response;
     }
@@ -15,52 +15,63 @@ public class PaymentService {
     @Autowired
     private PaymentRepository paymentRepository;
 
-    public Payment processPayment(Order order, PlaceOrderRequest request) {
+    // Reject unusable card details before an order is created
+    public void validatePaymentDetails(PlaceOrderRequest request) {
+        if (request.getPaymentMethod() != PaymentMethod.CARD) {
+            return;
+        }
+        if (request.getCardNumber() == null || request.getCardNumber().length() < 16
+                || request.getCvv() == null || request.getCvv().length() != 3) {
+            throw new RuntimeException("Card payment failed. Please check your card details.");
+        }
+    }
+
+    // Payment row of a new order. Cash on delivery and card payments both start PENDING;
+    // a card payment is settled by completeCardPayment once the gateway answers.
+    public Payment createPayment(Order order, PlaceOrderRequest request) {
         Payment payment = new Payment();
         payment.setOrder(order);
         payment.setPaymentMethod(request.getPaymentMethod());
         payment.setAmount(order.getTotalAmount());
+        payment.setPaymentStatus(PaymentStatus.PENDING);
+        return paymentRepository.save(payment);
+    }
 
-        if (request.getPaymentMethod() == PaymentMethod.CASH) {
-            // Cash on Delivery - Mark as PENDING
-            payment.setPaymentStatus(PaymentStatus.PENDING);
-        } else if (request.getPaymentMethod() == PaymentMethod.CARD) {
-            // Simulate card payment processing
-            boolean paymentSuccess = processCardPayment(request);
-            
-            if (paymentSuccess) {
-                payment.setPaymentStatus(PaymentStatus.COMPLETED);
-                // Store last 4 digits of card
-                String cardNumber = request.getCardNumber();
-                payment.setCardLastFour(cardNumber.substring(cardNumber.length() - 4));
-            } else {
-                payment.setPaymentStatus(PaymentStatus.FAILED);
-                throw new RuntimeException("Card payment failed. Please check your card details.");
-            }
+    // Record the gateway's answer on a processing card payment
+    public void completeCardPayment(Payment payment, boolean success, String cardNumber) {
+        if (success) {
+            payment.setPaymentStatus(PaymentStatus.COMPLETED);
+            // Store last 4 digits of card
+            payment.setCardLastFour(lastFour(cardNumber));
+        } else {
+            payment.setPaymentStatus(PaymentStatus.FAILED);
         }
+    }
 
-        return paymentRepository.save(payment);
+    // Record a charge that went through after the payment had already expired
+    public void requireRefund(Payment payment, String cardNumber) {
+        payment.setPaymentStatus(PaymentStatus.REFUND_REQUIRED);
+        payment.setCardLastFour(lastFour(cardNumber));
     }
 
-    // Simulate card payment (In real scenario, integrate with payment gateway)
-    private boolean processCardPayment(PlaceOrderRequest request) {
-        // Basic validation
-        if (request.getCardNumber() == null || request.getCardNumber().length() < 16) {
-            return false;
-        }
-        if (request.getCvv() == null || request.getCvv().length() != 3) {
-            return false;
-        }
-        
+    // Simulate card payment (In real scenario, integrate with payment gateway).
+    // Must not run inside a transaction: nothing here needs a DB connection.
+    public boolean processCardPayment(PlaceOrderRequest request) {
         // Simulate payment processing delay
         try {
             Thread.sleep(1000); // 1 second delay
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
+            return false;
         }
-        
+
         // In real scenario: Call payment gateway API
         // For now, always return true (success)
         return true;
     }
-}
\ No newline at end of file
+
+    // Helper: Last 4 digits of the card number
+    private String lastFour(String cardNumber) {
+        return cardNumber.substring(cardNumber.length() - 4);
+    }
+}
@@ -0,0 +1,87 @@
+package com.ecommerce.order;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Local stand-in for Cart Service: every user has a cart with one line of two items
+// (or linesPerCart such lines), and clearing a cart is only counted. Listens on an ephemeral port.
+public class StubCartService {
+
+    public static final double TOTAL_AMOUNT = 15.0;
+
+    private final HttpServer server;
+    private final AtomicInteger clears = new AtomicInteger();
+
+    public StubCartService(int threads, long latencyMillis) {
+        this(threads, latencyMillis, 1);
+    }
+
+    public StubCartService(int threads, long latencyMillis, int linesPerCart) {
+        // Without TCP_NODELAY the stub's separate header and body writes hit the 40 ms delayed-ACK stall
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        try {
+            // A deep accept queue, so a burst of new pooled connections is not reset
+            server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        server.setExecutor(Executors.newFixedThreadPool(threads));
+        server.createContext("/cart", exchange -> {
+            // Read the request first: the JDK server drops a keep-alive connection with unread input
+            exchange.getRequestBody().readAllBytes();
+            pause(latencyMillis);
+            String path = exchange.getRequestURI().getPath();
+            if (path.endsWith("/clear")) {
+                clears.incrementAndGet();
+                exchange.sendResponseHeaders(204, -1);
+                exchange.close();
+                return;
+            }
+            String userId = path.substring(path.lastIndexOf('/') + 1);
+            StringBuilder items = new StringBuilder();
+            for (int line = 1; line <= linesPerCart; line++) {
+                items.append(line == 1 ? "" : ",")
+                        .append("{\"id\":").append(line).append(",\"productId\":").append(line + 4)
+                        .append(",\"productName\":\"Product ").append(line + 4)
+                        .append("\",\"productPrice\":7.5,\"productAvailable\":true,\"quantity\":2,\"subtotal\":15.0}");
+            }
+            byte[] body = ("{\"cartId\":" + userId + ",\"userId\":" + userId + ",\"items\":[" + items
+                    + "],\"totalItems\":" + 2 * linesPerCart + ",\"totalAmount\":" + TOTAL_AMOUNT * linesPerCart + "}")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    public String url() {
+        return "http://localhost:" + server.getAddress().getPort() + "/cart";
+    }
+
+    public int clears() {
+        return clears.get();
+    }
+
+    public void stop() {
+        server.stop(0);
+    }
+
+    private static void pause(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
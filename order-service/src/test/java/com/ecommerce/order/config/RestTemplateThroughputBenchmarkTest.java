@@ -0,0 +1,170 @@
+package com.ecommerce.order.config;
+
+import com.sun.net.httpserver.HttpServer;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Cart Service calls from many threads against a local stub, through the pooled
+// keep-alive RestTemplate bean and through a bare new RestTemplate() for comparison.
+// Prints throughput, latency percentiles and how many connections each one used.
+// Runs with -Pbenchmarks.
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+class RestTemplateThroughputBenchmarkTest {
+
+    private static final int THREADS = 32;
+    private static final int CALLS_PER_THREAD = 200;
+    private static final int STUB_LATENCY_MS = 2;
+    private static final byte[] CART = ("{\"cartId\":1,\"userId\":7,\"items\":[{\"id\":1,\"productId\":5,\"productName\":\"P5\","
+            + "\"productPrice\":7.5,\"productAvailable\":true,\"quantity\":2,\"subtotal\":15.0}],"
+            + "\"totalItems\":2,\"totalAmount\":15.0}").getBytes(StandardCharsets.UTF_8);
+
+    // Client-side ports seen by the stub; every new connection shows up with a new ephemeral port
+    private static final Set<Integer> remotePorts = ConcurrentHashMap.newKeySet();
+
+    private static final HttpServer stub = startStub();
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    @Autowired
+    private PoolingHttpClientConnectionManager connectionManager;
+
+    @Autowired
+    private HttpClientMetrics httpClientMetrics;
+
+    @DynamicPropertySource
+    static void cartServiceUrl(DynamicPropertyRegistry registry) {
+        registry.add("cart.service.url", () -> "http://localhost:" + stub.getAddress().getPort() + "/cart");
+    }
+
+    @AfterAll
+    static void stopStub() {
+        stub.stop(0);
+    }
+
+    @Test
+    void cartServiceCallThroughput() throws Exception {
+        String url = "http://localhost:" + stub.getAddress().getPort() + "/cart/7";
+        RestTemplate unpooled = new RestTemplate();
+
+        // Warm up both clients before measuring
+        run(restTemplate, url);
+        run(unpooled, url);
+
+        Result pooled = run(restTemplate, url);
+        Result bare = run(unpooled, url);
+        print("pooled keep-alive", pooled);
+        print("new RestTemplate()", bare);
+
+        System.out.println("pool after run: " + httpClientMetrics.getStats());
+
+        assertEquals(THREADS * CALLS_PER_THREAD, pooled.latenciesNanos().length);
+        assertEquals(0, httpClientMetrics.getStats().getErrors());
+        // The pool keeps one connection per concurrent caller alive instead of reconnecting
+        assertTrue(pooled.connectionsOpened() <= THREADS, "pooled client used " + pooled.connectionsOpened());
+        assertTrue(connectionManager.getTotalStats().getAvailable() <= THREADS);
+    }
+
+    private Result run(RestTemplate client, String url) throws Exception {
+        remotePorts.clear();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<long[]>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(pool.submit((Callable<long[]>) () -> {
+                start.await();
+                long[] latencies = new long[CALLS_PER_THREAD];
+                for (int n = 0; n < CALLS_PER_THREAD; n++) {
+                    long started = System.nanoTime();
+                    client.getForObject(url, Map.class);
+                    latencies[n] = System.nanoTime() - started;
+                }
+                return latencies;
+            }));
+        }
+        long startedAt = System.nanoTime();
+        start.countDown();
+        long[] all = new long[0];
+        for (Future<long[]> future : futures) {
+            long[] latencies = future.get();
+            int offset = all.length;
+            all = Arrays.copyOf(all, offset + latencies.length);
+            System.arraycopy(latencies, 0, all, offset, latencies.length);
+        }
+        long elapsed = System.nanoTime() - startedAt;
+        pool.shutdown();
+        Arrays.sort(all);
+        return new Result(all, elapsed, remotePorts.size());
+    }
+
+    private static void print(String name, Result result) {
+        System.out.printf("%-20s %d threads: %.0f calls/s, p50 %.2f ms, p99 %.2f ms, %d connections used%n", name,
+                THREADS, result.perSecond(), result.percentileMillis(0.50), result.percentileMillis(0.99),
+                result.connectionsOpened());
+    }
+
+    private static HttpServer startStub() {
+        // Without TCP_NODELAY the stub's separate header and body writes hit the 40 ms delayed-ACK stall
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.setExecutor(Executors.newFixedThreadPool(THREADS * 2));
+            server.createContext("/cart", exchange -> {
+                remotePorts.add(exchange.getRemoteAddress().getPort());
+                try {
+                    Thread.sleep(STUB_LATENCY_MS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, CART.length);
+                exchange.getResponseBody().write(CART);
+                exchange.close();
+            });
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private record Result(long[] latenciesNanos, long elapsedNanos, int connectionsOpened) {
+        double perSecond() {
+            return latenciesNanos.length * 1_000_000_000.0 / elapsedNanos;
+        }
+
+        double percentileMillis(double percentile) {
+            int index = Math.min(latenciesNanos.length - 1, (int) Math.ceil(percentile * latenciesNanos.length) - 1);
+            return latenciesNanos[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
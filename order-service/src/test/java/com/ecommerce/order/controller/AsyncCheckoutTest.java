@@ -0,0 +1,164 @@
+package com.ecommerce.order.controller;
+
+import com.ecommerce.order.StubCartService;
+import com.ecommerce.order.dto.PlaceOrderRequest;
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.entity.Payment;
+import com.ecommerce.order.enums.OrderStatus;
+import com.ecommerce.order.enums.PaymentMethod;
+import com.ecommerce.order.enums.PaymentStatus;
+import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.order.repository.PaymentRepository;
+import com.ecommerce.order.service.PaymentService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// POST /orders/place with order.checkout.async=true. The payment executor has one thread and
+// a one-slot queue, so a test can fill it and make the request thread run the payment itself.
+@SpringBootTest(properties = {"order.checkout.async=true",
+        "order.payment.executor.core-size=1",
+        "order.payment.executor.max-size=1",
+        "order.payment.executor.queue-capacity=1"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AsyncCheckoutTest {
+
+    private static final StubCartService cartService = new StubCartService(4, 0);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    @Qualifier("paymentExecutor")
+    private Executor paymentExecutor;
+
+    @SpyBean
+    private PaymentService paymentService;
+
+    // Thread that called the card gateway, per card holder name
+    private final Map<String, String> gatewayThreads = new ConcurrentHashMap<>();
+
+    @DynamicPropertySource
+    static void cartServiceUrl(DynamicPropertyRegistry registry) {
+        registry.add("cart.service.url", cartService::url);
+    }
+
+    @AfterAll
+    static void stopCartService() {
+        cartService.stop();
+    }
+
+    @Test
+    void cardOrderIsAcceptedPendingAndPaidOnThePaymentExecutor() throws Exception {
+        recordGatewayThreads();
+        int clearsBefore = cartService.clears();
+
+        mockMvc.perform(post("/orders/place")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(cardOrder(101L, "Background"))))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.orderStatus").value("PENDING"))
+                .andExpect(jsonPath("$.paymentStatus").value("PENDING"));
+
+        awaitStatuses(101L, OrderStatus.CONFIRMED, PaymentStatus.COMPLETED);
+        assertTrue(gatewayThreads.get("Background").startsWith("payment-"), gatewayThreads.get("Background"));
+        assertEquals(clearsBefore + 1, cartService.clears());
+    }
+
+    @Test
+    void cardOrderPaidOnTheRequestThreadWhenTheQueueIsFullReturnsTheOutcome() throws Exception {
+        recordGatewayThreads();
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch busy = new CountDownLatch(1);
+        // Occupy the only payment thread, then the only queue slot
+        paymentExecutor.execute(() -> {
+            busy.countDown();
+            awaitQuietly(release);
+        });
+        assertTrue(busy.await(10, TimeUnit.SECONDS));
+        paymentExecutor.execute(() -> { });
+        try {
+            mockMvc.perform(post("/orders/place")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(cardOrder(102L, "Inline"))))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.orderStatus").value("CONFIRMED"))
+                    .andExpect(jsonPath("$.paymentStatus").value("COMPLETED"));
+        } finally {
+            release.countDown();
+        }
+        assertTrue(!gatewayThreads.get("Inline").startsWith("payment-"), gatewayThreads.get("Inline"));
+        awaitStatuses(102L, OrderStatus.CONFIRMED, PaymentStatus.COMPLETED);
+    }
+
+    private void recordGatewayThreads() {
+        doAnswer(invocation -> {
+            PlaceOrderRequest request = invocation.getArgument(0);
+            gatewayThreads.put(request.getCardHolderName(), Thread.currentThread().getName());
+            return invocation.callRealMethod();
+        }).when(paymentService).processCardPayment(any());
+    }
+
+    private void awaitStatuses(Long userId, OrderStatus orderStatus, PaymentStatus paymentStatus) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(15);
+        while (System.nanoTime() < deadline) {
+            List<Order> orders = orderRepository.findWithItemsByUserId(userId);
+            if (orders.size() == 1 && orders.get(0).getOrderStatus() == orderStatus) {
+                Payment payment = paymentRepository.findByOrderId(orders.get(0).getId()).orElseThrow();
+                assertEquals(paymentStatus, payment.getPaymentStatus());
+                return;
+            }
+            Thread.sleep(50);
+        }
+        fail("Order of user " + userId + " never reached " + orderStatus);
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static PlaceOrderRequest cardOrder(Long userId, String cardHolderName) {
+        return new PlaceOrderRequest(userId, "Test Customer", "customer@example.com", "0123456789",
+                PaymentMethod.CARD, "4111111111111111", cardHolderName, "12/30", "123");
+    }
+}
@@ -0,0 +1,145 @@
+package com.ecommerce.order.controller;
+
+import com.ecommerce.order.StubCartService;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// POST /orders/place throughput and latency under a fixed load, through a real Tomcat on a
+// random port, against a stub Cart Service that answers after STUB_LATENCY_MS. Subclasses pick
+// platform or virtual request threads; run both on JDK 21+ and compare the printed lines:
+//   mvn -B -Pbenchmarks test -Dtest='*ThreadsPlaceOrderBenchmarkTest'
+// Cash orders keep the 1 s simulated card gateway out of the measurement. Tomcat is capped at
+// TOMCAT_MAX_THREADS platform threads (ignored in virtual mode), and the bulkhead and connection
+// pool are opened wide so the threading model is the limit. Pinned virtual threads are counted
+// from the JFR jdk.VirtualThreadPinned event.
+@Tag("benchmark")
+abstract class PlaceOrderThreadingBenchmark {
+
+    private static final int TOMCAT_MAX_THREADS = 50;
+    private static final int CONCURRENCY = 100;
+    private static final int WARM_UP_REQUESTS = 300;
+    private static final int REQUESTS = 1000;
+    private static final long STUB_LATENCY_MS = 50;
+
+    private static final StubCartService cartService = new StubCartService(CONCURRENCY * 2, STUB_LATENCY_MS);
+
+    @LocalServerPort
+    private int port;
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final AtomicLong nextUserId = new AtomicLong(1);
+
+    @DynamicPropertySource
+    static void benchmarkProperties(DynamicPropertyRegistry registry) {
+        registry.add("cart.service.url", cartService::url);
+        registry.add("server.tomcat.threads.max", () -> TOMCAT_MAX_THREADS);
+        registry.add("resilience.max-concurrent-calls", () -> CONCURRENCY * 2);
+        registry.add("http-client.cart-service.max-per-route", () -> CONCURRENCY * 2);
+        registry.add("order.notification.dispatch-interval-ms", () -> 3600000);
+    }
+
+    @AfterAll
+    static void stopCartService() {
+        cartService.stop();
+    }
+
+    abstract String mode();
+
+    @Test
+    void placeOrderThroughput() throws Exception {
+        run(WARM_UP_REQUESTS, new AtomicInteger());
+
+        AtomicInteger pinned = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        long[] latencies;
+        long elapsed;
+        try (RecordingStream recording = new RecordingStream()) {
+            recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ofMillis(1));
+            recording.onEvent("jdk.VirtualThreadPinned", event -> pinned.incrementAndGet());
+            recording.startAsync();
+
+            long startedAt = System.nanoTime();
+            latencies = run(REQUESTS, failures);
+            elapsed = System.nanoTime() - startedAt;
+        }
+
+        System.out.printf("%s threads, %d concurrent, %d ms cart latency: %.0f orders/s, p50 %.1f ms, p99 %.1f ms, "
+                        + "%d failed, %d pinned events%n", mode(), CONCURRENCY, STUB_LATENCY_MS,
+                REQUESTS * 1_000_000_000.0 / elapsed, percentileMillis(latencies, 0.50),
+                percentileMillis(latencies, 0.99), failures.get(), pinned.get());
+        // An overloaded machine may time out the odd call; anything more means the run is not comparable
+        assertTrue(failures.get() <= REQUESTS / 100, failures.get() + " of " + REQUESTS + " orders failed");
+    }
+
+    // Helper: Place requests orders from CONCURRENCY clients; returns the sorted latencies
+    private long[] run(int requests, AtomicInteger failures) throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(CONCURRENCY);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger remaining = new AtomicInteger(requests);
+        List<Future<long[]>> futures = new ArrayList<>();
+        for (int c = 0; c < CONCURRENCY; c++) {
+            futures.add(clients.submit((Callable<long[]>) () -> {
+                start.await();
+                long[] latencies = new long[requests];
+                int count = 0;
+                while (remaining.getAndDecrement() > 0) {
+                    long started = System.nanoTime();
+                    if (placeOrder().statusCode() != 200) {
+                        failures.incrementAndGet();
+                    }
+                    latencies[count++] = System.nanoTime() - started;
+                }
+                return Arrays.copyOf(latencies, count);
+            }));
+        }
+        start.countDown();
+        long[] all = new long[0];
+        for (Future<long[]> future : futures) {
+            long[] latencies = future.get();
+            int offset = all.length;
+            all = Arrays.copyOf(all, offset + latencies.length);
+            System.arraycopy(latencies, 0, all, offset, latencies.length);
+        }
+        clients.shutdown();
+        Arrays.sort(all);
+        return all;
+    }
+
+    private HttpResponse<String> placeOrder() throws Exception {
+        String body = "{\"userId\":" + nextUserId.getAndIncrement() + ",\"customerName\":\"Load Test\","
+                + "\"customerEmail\":\"load@example.com\",\"customerMobile\":\"0123456789\",\"paymentMethod\":\"CASH\"}";
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/orders/place"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static double percentileMillis(long[] sortedNanos, double percentile) {
+        int index = Math.min(sortedNanos.length - 1, (int) Math.ceil(percentile * sortedNanos.length) - 1);
+        return sortedNanos[Math.max(0, index)] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,16 @@
+package com.ecommerce.order.controller;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+// placeOrder benchmark with Tomcat on its bounded pool of platform threads
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.threads.virtual.enabled=false")
+@ActiveProfiles("test")
+class PlatformThreadsPlaceOrderBenchmarkTest extends PlaceOrderThreadingBenchmark {
+
+    @Override
+    String mode() {
+        return "Platform";
+    }
+}
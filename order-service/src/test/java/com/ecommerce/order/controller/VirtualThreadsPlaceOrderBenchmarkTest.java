@@ -0,0 +1,19 @@
+package com.ecommerce.order.controller;
+
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+// placeOrder benchmark with a virtual thread per request; skipped below JDK 21
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.threads.virtual.enabled=true")
+@ActiveProfiles("test")
+@EnabledForJreRange(min = JRE.JAVA_21)
+class VirtualThreadsPlaceOrderBenchmarkTest extends PlaceOrderThreadingBenchmark {
+
+    @Override
+    String mode() {
+        return "Virtual";
+    }
+}
@@ -0,0 +1,91 @@
+package com.ecommerce.order.id;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Many threads drawing ids from one generator, no database: every id is unique, ids
+// increase within each thread and carry the node id. The ids/s print runs with -Pbenchmarks.
+class SnowflakeIdGeneratorTest {
+
+    private static final int THREADS = 16;
+    private static final int IDS_PER_THREAD = 200_000;
+    private static final long NODE_ID = 513;
+
+    @Test
+    void uniqueAndIncreasingAcrossThreads() throws Exception {
+        List<long[]> perThread = drawIds(new SnowflakeIdGenerator(NODE_ID));
+
+        long[] all = new long[THREADS * IDS_PER_THREAD];
+        int offset = 0;
+        for (long[] ids : perThread) {
+            for (int n = 1; n < ids.length; n++) {
+                assertTrue(ids[n] > ids[n - 1], "ids of one thread must increase");
+            }
+            System.arraycopy(ids, 0, all, offset, ids.length);
+            offset += ids.length;
+        }
+        Arrays.sort(all);
+        for (int n = 1; n < all.length; n++) {
+            assertTrue(all[n] != all[n - 1], "duplicate id " + all[n]);
+        }
+        assertTrue(all[0] > 0);
+        assertEquals(NODE_ID, (all[0] >>> 12) & 1023);
+    }
+
+    @Test
+    void rejectsNodeIdOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(-1));
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeIdGenerator(1024));
+    }
+
+    @Test
+    @Tag("benchmark")
+    void throughputAcrossThreads() throws Exception {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(NODE_ID);
+        drawIds(generator);
+
+        long startedAt = System.nanoTime();
+        drawIds(generator);
+        long elapsed = System.nanoTime() - startedAt;
+
+        System.out.printf("%d threads: %d ids, %.1f M ids/s%n", THREADS, THREADS * IDS_PER_THREAD,
+                THREADS * IDS_PER_THREAD * 1_000.0 / elapsed);
+    }
+
+    // Helper: IDS_PER_THREAD ids from each of THREADS threads started together
+    private static List<long[]> drawIds(SnowflakeIdGenerator generator) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<long[]>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(pool.submit((Callable<long[]>) () -> {
+                start.await();
+                long[] ids = new long[IDS_PER_THREAD];
+                for (int n = 0; n < IDS_PER_THREAD; n++) {
+                    ids[n] = generator.nextId();
+                }
+                return ids;
+            }));
+        }
+        start.countDown();
+        List<long[]> perThread = new ArrayList<>(THREADS);
+        for (Future<long[]> future : futures) {
+            perThread.add(future.get());
+        }
+        pool.shutdown();
+        return perThread;
+    }
+}
@@ -0,0 +1,104 @@
+package com.ecommerce.order.idempotency;
+
+import com.ecommerce.order.dto.OrderResponse;
+import com.ecommerce.order.dto.PlaceOrderRequest;
+import com.ecommerce.order.enums.PaymentMethod;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Duplicates of an Idempotency-Key on one instance: the same request waits for and shares
+// the running execution, a different request is rejected with 409 without waiting, and a
+// completed key replays its stored response.
+@SpringBootTest
+@ActiveProfiles("test")
+class IdempotencyStoreTest {
+
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+
+    @Test
+    void duplicateWaitsForRunningExecution() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<OrderResponse> first = CompletableFuture.supplyAsync(() -> idempotencyStore.execute(
+                "key-same", request(1L), blockingOrder("ORD1", executions, started, release)));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<OrderResponse> duplicate = CompletableFuture.supplyAsync(() -> idempotencyStore.execute(
+                "key-same", request(1L), blockingOrder("ORD2", executions, new CountDownLatch(1), release)));
+        release.countDown();
+
+        assertEquals("ORD1", first.get(5, TimeUnit.SECONDS).getOrderNumber());
+        assertEquals("ORD1", duplicate.get(5, TimeUnit.SECONDS).getOrderNumber());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void differentRequestWithRunningKeyIsRejected() throws Exception {
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<OrderResponse> first = CompletableFuture.supplyAsync(() -> idempotencyStore.execute(
+                "key-running", request(2L), blockingOrder("ORD3", executions, started, release)));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // Rejected while the first execution is still blocked, instead of waiting for its response
+        assertThrows(IdempotencyConflictException.class, () -> idempotencyStore.execute(
+                "key-running", request(3L), () -> order("ORD4", executions)));
+        release.countDown();
+
+        assertEquals("ORD3", first.get(5, TimeUnit.SECONDS).getOrderNumber());
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void completedKeyReplaysResponse() {
+        AtomicInteger executions = new AtomicInteger();
+        idempotencyStore.execute("key-done", request(4L), () -> order("ORD5", executions));
+
+        OrderResponse replay = idempotencyStore.execute("key-done", request(4L), () -> order("ORD6", executions));
+
+        assertEquals("ORD5", replay.getOrderNumber());
+        assertEquals(1, executions.get());
+        assertThrows(IdempotencyConflictException.class, () -> idempotencyStore.execute(
+                "key-done", request(5L), () -> order("ORD7", executions)));
+    }
+
+    private static Supplier<OrderResponse> blockingOrder(String orderNumber, AtomicInteger executions,
+                                                         CountDownLatch started, CountDownLatch release) {
+        return () -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return order(orderNumber, executions);
+        };
+    }
+
+    private static OrderResponse order(String orderNumber, AtomicInteger executions) {
+        executions.incrementAndGet();
+        OrderResponse response = new OrderResponse();
+        response.setOrderNumber(orderNumber);
+        return response;
+    }
+
+    private static PlaceOrderRequest request(Long userId) {
+        return new PlaceOrderRequest(userId, "Test Customer", "customer@example.com", "0123456789",
+                PaymentMethod.CASH, null, null, null, null);
+    }
+}
@@ -0,0 +1,143 @@
+package com.ecommerce.order.notification;
+
+import com.ecommerce.order.dto.NotificationStats;
+import com.ecommerce.order.entity.NotificationOutbox;
+import com.ecommerce.order.enums.NotificationStatus;
+import com.ecommerce.order.repository.NotificationOutboxRepository;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// dispatch() against an in-process SMTP server (GreenMail on the test profile's port 3025):
+// delivery, a failed email retried with backoff while the rest of its batch goes out,
+// and dead-lettering once the attempts run out. The scheduled run is pushed out of the way.
+@SpringBootTest(properties = {"order.notification.dispatch-interval-ms=3600000",
+        "order.notification.max-attempts=2", "order.notification.backoff-base-seconds=30"})
+@ActiveProfiles("test")
+class NotificationDispatcherTest {
+
+    @RegisterExtension
+    static final GreenMailExtension smtp = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    @Autowired
+    private NotificationDispatcher dispatcher;
+
+    @Autowired
+    private NotificationOutboxRepository outboxRepository;
+
+    @BeforeEach
+    void clearOutbox() {
+        outboxRepository.deleteAll();
+    }
+
+    @Test
+    void sendsDueEmails() throws Exception {
+        NotificationOutbox first = enqueue(1L, "first@example.com");
+        NotificationOutbox second = enqueue(2L, "second@example.com");
+
+        dispatcher.dispatch();
+
+        assertEquals(1, received("first@example.com"));
+        assertEquals(1, received("second@example.com"));
+        for (NotificationOutbox notification : outboxRepository.findAllById(List.of(first.getId(), second.getId()))) {
+            assertEquals(NotificationStatus.SENT, notification.getStatus());
+            assertEquals(1, notification.getAttempts());
+            assertNotNull(notification.getSentAt());
+        }
+    }
+
+    @Test
+    void retriesFailedEmailWithBackoffThenDeadLetters() throws Exception {
+        NotificationOutbox good = enqueue(3L, "good@example.com");
+        NotificationOutbox bad = enqueue(4L, "not an address");
+        LocalDateTime before = LocalDateTime.now();
+
+        dispatcher.dispatch();
+
+        // The good email of the batch was delivered, the bad one waits for its retry
+        assertEquals(1, received("good@example.com"));
+        assertEquals(NotificationStatus.SENT, reload(good).getStatus());
+        NotificationOutbox failed = reload(bad);
+        assertEquals(NotificationStatus.PENDING, failed.getStatus());
+        assertEquals(1, failed.getAttempts());
+        assertNotNull(failed.getLastError());
+        assertTrue(!failed.getNextAttemptAt().isBefore(before.plusSeconds(30)));
+
+        // Not due yet: nothing happens
+        dispatcher.dispatch();
+        assertEquals(1, reload(bad).getAttempts());
+
+        // Once due, the second failure exhausts max-attempts
+        failed.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        outboxRepository.save(failed);
+        dispatcher.dispatch();
+
+        NotificationOutbox dead = reload(bad);
+        assertEquals(NotificationStatus.DEAD, dead.getStatus());
+        assertEquals(2, dead.getAttempts());
+        assertEquals(1, received("good@example.com"));
+
+        NotificationStats stats = dispatcher.getStats();
+        assertEquals(0, stats.getPending());
+        assertEquals(1, stats.getDeadLetters());
+    }
+
+    @Test
+    void retriesWholeBatchWhenServerIsDown() {
+        NotificationOutbox notification = enqueue(5L, "down@example.com");
+        smtp.stop();
+        try {
+            dispatcher.dispatch();
+        } finally {
+            smtp.start();
+        }
+
+        NotificationOutbox failed = reload(notification);
+        assertEquals(NotificationStatus.PENDING, failed.getStatus());
+        assertEquals(1, failed.getAttempts());
+        assertTrue(failed.getNextAttemptAt().isAfter(LocalDateTime.now()));
+        assertNull(failed.getSentAt());
+    }
+
+    private NotificationOutbox enqueue(Long orderId, String recipient) {
+        NotificationOutbox notification = new NotificationOutbox();
+        notification.setOrderId(orderId);
+        notification.setRecipient(recipient);
+        notification.setSubject("Order Confirmation - " + orderId);
+        notification.setBody("Thank you for your order!");
+        notification.setStatus(NotificationStatus.PENDING);
+        notification.setAttempts(0);
+        notification.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        return outboxRepository.save(notification);
+    }
+
+    // Other cached test contexts may deliver to the same server, so count per recipient
+    private static long received(String recipient) throws MessagingException {
+        long count = 0;
+        for (MimeMessage message : smtp.getReceivedMessages()) {
+            if (message.getAllRecipients()[0].toString().equals(recipient)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private NotificationOutbox reload(NotificationOutbox notification) {
+        return outboxRepository.findById(notification.getId()).orElseThrow();
+    }
+}
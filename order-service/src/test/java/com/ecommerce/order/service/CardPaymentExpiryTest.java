@@ -0,0 +1,131 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.StubCartService;
+import com.ecommerce.order.dto.PlaceOrderRequest;
+import com.ecommerce.order.entity.Order;
+import com.ecommerce.order.entity.Payment;
+import com.ecommerce.order.enums.OrderStatus;
+import com.ecommerce.order.enums.PaymentMethod;
+import com.ecommerce.order.enums.PaymentStatus;
+import com.ecommerce.order.repository.OrderRepository;
+import com.ecommerce.order.repository.PaymentRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+// The stale-payment sweeper racing a card payment: a payment expired before the worker
+// claims it is never charged, and a charge that succeeds after expiry is marked for refund.
+// A zero pending timeout lets every sweep expire all open card payments.
+@SpringBootTest(properties = {"order.payment.pending-timeout-minutes=0",
+        "order.payment.expire-check-interval-ms=3600000"})
+@ActiveProfiles("test")
+class CardPaymentExpiryTest {
+
+    private static final StubCartService cartService = new StubCartService(4, 0);
+
+    @Autowired
+    private OrderService orderService;
+
+    @SpyBean
+    private PaymentService paymentService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @DynamicPropertySource
+    static void cartServiceUrl(DynamicPropertyRegistry registry) {
+        registry.add("cart.service.url", cartService::url);
+    }
+
+    @AfterAll
+    static void stopCartService() {
+        cartService.stop();
+    }
+
+    @Test
+    void paidWhenNothingExpires() {
+        orderService.placeOrder(cardOrder(1L));
+
+        assertStatuses(1L, OrderStatus.CONFIRMED, PaymentStatus.COMPLETED);
+    }
+
+    @Test
+    void chargeAfterExpiryIsMarkedForRefund() {
+        doAnswer(invocation -> {
+            sweep();
+            return true;
+        }).when(paymentService).processCardPayment(any());
+
+        assertThrows(RuntimeException.class, () -> orderService.placeOrder(cardOrder(2L)));
+
+        assertStatuses(2L, OrderStatus.CANCELLED, PaymentStatus.REFUND_REQUIRED);
+    }
+
+    @Test
+    void expiredBeforeClaimIsNeverCharged() {
+        // Sweep right after the order and its pending payment commit, before the worker claims it
+        doAnswer(invocation -> {
+            Payment payment = (Payment) invocation.callRealMethod();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    Thread sweeper = new Thread(CardPaymentExpiryTest.this::sweep);
+                    sweeper.start();
+                    try {
+                        sweeper.join();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+            return payment;
+        }).when(paymentService).createPayment(any(), any());
+
+        assertThrows(RuntimeException.class, () -> orderService.placeOrder(cardOrder(3L)));
+
+        verify(paymentService, never()).processCardPayment(any());
+        assertStatuses(3L, OrderStatus.CANCELLED, PaymentStatus.FAILED);
+    }
+
+    // Helper: Run the sweeper once the payment is strictly older than now
+    private void sweep() {
+        try {
+            Thread.sleep(5);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        orderService.expireStaleCardPayments();
+    }
+
+    private void assertStatuses(Long userId, OrderStatus orderStatus, PaymentStatus paymentStatus) {
+        List<Order> orders = orderRepository.findWithItemsByUserId(userId);
+        assertEquals(1, orders.size());
+        assertEquals(orderStatus, orders.get(0).getOrderStatus());
+        Payment payment = paymentRepository.findByOrderId(orders.get(0).getId()).orElseThrow();
+        assertEquals(paymentStatus, payment.getPaymentStatus());
+    }
+
+    private static PlaceOrderRequest cardOrder(Long userId) {
+        return new PlaceOrderRequest(userId, "Test Customer", "customer@example.com", "0123456789",
+                PaymentMethod.CARD, "4111111111111111", "Test Customer", "12/30", "123");
+    }
+}
@@ -0,0 +1,61 @@
+package com.ecommerce.order.service;
+
+import com.ecommerce.order.StubCartService;
+import com.ecommerce.order.dto.PlaceOrderRequest;
+import com.ecommerce.order.enums.PaymentMethod;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Placing an order with many lines: every OrderItem is inserted, but with Snowflake ids and
+// hibernate.jdbc.batch_size the inserts share prepared statements instead of one per item.
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+class OrderItemBatchInsertTest {
+
+    private static final int LINES = 40;
+
+    private static final StubCartService cartService = new StubCartService(2, 0, LINES);
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @DynamicPropertySource
+    static void cartServiceUrl(DynamicPropertyRegistry registry) {
+        registry.add("cart.service.url", cartService::url);
+    }
+
+    @AfterAll
+    static void stopCartService() {
+        cartService.stop();
+    }
+
+    @Test
+    void orderItemsAreInsertedInJdbcBatches() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        orderService.placeOrder(new PlaceOrderRequest(7L, "Test Customer", "customer@example.com", "0123456789",
+                PaymentMethod.CASH, null, null, null, null));
+
+        long inserts = statistics.getEntityInsertCount();
+        long statements = statistics.getPrepareStatementCount();
+        System.out.println("✅ " + inserts + " entity inserts in " + statements + " prepared statements");
+        // The order, its items, the payment and the outbox email
+        assertEquals(LINES + 3, inserts);
+        assertTrue(statements < 10, "expected batched inserts, got " + statements + " statements");
+    }
+}
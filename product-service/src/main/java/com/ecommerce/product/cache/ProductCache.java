@@ -0,0 +1,262 @@
+package com.ecommerce.product.cache;
+
+import com.ecommerce.product.dto.CacheStats;
+import com.ecommerce.product.entity.Product;
+import com.ecommerce.product.event.ProductChangedEvent;
+import com.ecommerce.product.util.ProductTombstones;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Bounded in-process cache of products keyed by ID.
+// Reads are lock-free; inserts and evictions take a single lock. Eviction is a
+// generalized CLOCK sweep: every hit bumps a small per-entry counter, the clock
+// hand decrements counters as it passes and evicts the first entry that reaches
+// zero (or has expired), so frequently read products survive one-off lookups.
+// Cached products are shared instances and must be treated as read-only.
+// Writes are applied by version: an event older than the cached entry, or for a
+// product deleted within the last TTL, is ignored, so listeners that run out of
+// commit order cannot put an older state back.
+@Component
+public class ProductCache {
+
+    // Upper bound for an entry's access counter, keeps a full sweep short
+    private static final int MAX_FREQUENCY = 15;
+
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Entry[] slots;
+    private final long ttlNanos;
+    private int size;
+    private int hand;
+
+    // Bumped on every write so a read-through fill that raced with it is dropped
+    private final AtomicLong generation = new AtomicLong();
+    // Guarded by lock
+    private final ProductTombstones tombstones;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong expirations = new AtomicLong();
+
+    public ProductCache(@Value("${product.cache.max-size:10000}") int maxSize,
+                        @Value("${product.cache.ttl-seconds:300}") long ttlSeconds) {
+        this.slots = new Entry[Math.max(0, maxSize)];
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.tombstones = new ProductTombstones(ttlNanos);
+    }
+
+    // Refresh or drop the entry once a product write has committed
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (event.isDeleted()) {
+            lock.lock();
+            try {
+                tombstones.add(event.getProductId());
+                invalidate(event.getProductId());
+            } finally {
+                lock.unlock();
+            }
+        } else {
+            put(event.getProduct());
+        }
+    }
+
+    public Optional<Product> get(Long id) {
+        Entry entry = entries.get(id);
+        if (entry == null) {
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+        if (entry.isExpired(System.nanoTime())) {
+            if (remove(id, entry)) {
+                expirations.incrementAndGet();
+            }
+            misses.incrementAndGet();
+            return Optional.empty();
+        }
+        entry.touch();
+        hits.incrementAndGet();
+        return Optional.of(entry.product);
+    }
+
+    // Snapshot to pass to putIfCurrent() when filling the cache after a DB read
+    public long generation() {
+        return generation.get();
+    }
+
+    // Caches a product read from the DB unless a write happened since the read started
+    public void putIfCurrent(Product product, long expectedGeneration) {
+        lock.lock();
+        try {
+            if (generation.get() == expectedGeneration) {
+                store(product);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Caches the state of a product after it was written, unless a newer one is cached
+    public void put(Product product) {
+        lock.lock();
+        try {
+            generation.incrementAndGet();
+            if (isStale(product)) {
+                return;
+            }
+            store(product);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void invalidate(Long id) {
+        lock.lock();
+        try {
+            generation.incrementAndGet();
+            Entry entry = entries.remove(id);
+            if (entry != null) {
+                releaseSlot(entry);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            generation.incrementAndGet();
+            entries.clear();
+            for (int i = 0; i < size; i++) {
+                slots[i] = null;
+            }
+            size = 0;
+            hand = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public CacheStats getStats() {
+        long hitCount = hits.get();
+        long missCount = misses.get();
+        long lookups = hitCount + missCount;
+        double hitRate = lookups == 0 ? 0.0 : (double) hitCount / lookups;
+        return new CacheStats(entries.size(), slots.length, hitCount, missCount,
+                evictions.get(), expirations.get(), hitRate);
+    }
+
+    // Must hold lock
+    private boolean isStale(Product product) {
+        if (tombstones.contains(product.getId())) {
+            return true;
+        }
+        Entry existing = entries.get(product.getId());
+        return existing != null && existing.product.getVersion() != null && product.getVersion() != null
+                && product.getVersion() <= existing.product.getVersion();
+    }
+
+    // Must hold lock
+    private void store(Product product) {
+        if (product.getId() == null || slots.length == 0) {
+            return;
+        }
+        long expiresAt = System.nanoTime() + ttlNanos;
+        Entry existing = entries.get(product.getId());
+        if (existing != null) {
+            Entry replacement = new Entry(product.getId(), product, existing.slot, expiresAt);
+            replacement.frequency.set(existing.frequency.get());
+            slots[existing.slot] = replacement;
+            entries.put(product.getId(), replacement);
+            return;
+        }
+        int slot = size < slots.length ? size++ : evictSlot();
+        Entry entry = new Entry(product.getId(), product, slot, expiresAt);
+        slots[slot] = entry;
+        entries.put(product.getId(), entry);
+    }
+
+    private boolean remove(Long id, Entry expected) {
+        lock.lock();
+        try {
+            if (!entries.remove(id, expected)) {
+                return false;
+            }
+            releaseSlot(expected);
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Must hold lock. Moves the last occupied slot into the freed one to keep slots dense.
+    private void releaseSlot(Entry entry) {
+        int last = size - 1;
+        if (entry.slot != last) {
+            Entry moved = slots[last];
+            moved.slot = entry.slot;
+            slots[entry.slot] = moved;
+        }
+        slots[last] = null;
+        size--;
+        if (hand >= size) {
+            hand = 0;
+        }
+    }
+
+    // Must hold lock and the cache must be full
+    private int evictSlot() {
+        long now = System.nanoTime();
+        while (true) {
+            Entry candidate = slots[hand];
+            int current = hand;
+            hand = (hand + 1) % slots.length;
+            if (candidate.isExpired(now)) {
+                entries.remove(candidate.id, candidate);
+                expirations.incrementAndGet();
+                return current;
+            }
+            if (candidate.frequency.get() == 0) {
+                entries.remove(candidate.id, candidate);
+                evictions.incrementAndGet();
+                return current;
+            }
+            candidate.frequency.updateAndGet(f -> Math.max(0, f - 1));
+        }
+    }
+
+    private static final class Entry {
+        private final Long id;
+        private final Product product;
+        private final long expiresAt;
+        private final AtomicInteger frequency = new AtomicInteger();
+        private int slot;
+
+        private Entry(Long id, Product product, int slot, long expiresAt) {
+            this.id = id;
+            this.product = product;
+            this.slot = slot;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return now - expiresAt > 0;
+        }
+
+        private void touch() {
+            if (frequency.get() < MAX_FREQUENCY) {
+                frequency.incrementAndGet();
+            }
+        }
+    }
+}
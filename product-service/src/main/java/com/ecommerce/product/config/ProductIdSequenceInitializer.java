@@ -0,0 +1,36 @@
+package com.ecommerce.product.config;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// Products used to get AUTO_INCREMENT ids. On MySQL the pooled product_seq
+// generator is backed by a one-row table that starts at 1, so move it past the
+// highest existing id (plus one allocation block) before the first insert.
+@Component
+@DependsOn("entityManagerFactory")
+public class ProductIdSequenceInitializer {
+
+    // Must match allocationSize of the product_seq generator on Product
+    private static final int ALLOCATION_SIZE = 50;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void alignSequence() {
+        try {
+            int updated = jdbcTemplate.update(
+                    "UPDATE product_seq SET next_val = GREATEST(next_val, " +
+                    "(SELECT COALESCE(MAX(id), 0) + ? + 1 FROM products))", ALLOCATION_SIZE);
+            if (updated > 0) {
+                System.out.println("✅ product_seq aligned with existing product ids");
+            }
+        } catch (Exception e) {
+            // Databases with native sequences have no product_seq table to align
+            System.err.println("Warning: Could not align product_seq: " + e.getMessage());
+        }
+    }
+}
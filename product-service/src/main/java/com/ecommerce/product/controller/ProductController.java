@@ -1,13 +1,34 @@
 package com.ecommerce.product.controller;
 
+import com.ecommerce.product.dto.CacheStats;
+import com.ecommerce.product.dto.CategoryFacet;
+import com.ecommerce.product.dto.ProductBatchRequest;
+import com.ecommerce.product.dto.ProductBatchResponse;
 import com.ecommerce.product.entity.Product;
+import com.ecommerce.product.dto.ProductImportReport;
+import com.ecommerce.product.dto.ProductListVersion;
+import com.ecommerce.product.dto.ProductVersion;
+import com.ecommerce.product.service.ProductChangeFeed;
+import com.ecommerce.product.service.ProductExportService;
+import com.ecommerce.product.service.ProductImportService;
 import com.ecommerce.product.service.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/products")
@@ -16,19 +37,60 @@ public class ProductController {
     @Autowired
     private ProductService productService;
 
-    // ✅ Get all products
+    @Autowired
+    private ProductExportService productExportService;
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ProductChangeFeed productChangeFeed;
+
+    // ✅ Get all products (keyset-paginated when a limit is given)
     @GetMapping
-    public ResponseEntity<List<Product>> getAllProducts() {
-        List<Product> products = productService.getAllProducts();
-        return ResponseEntity.ok(products);
+    public ResponseEntity<?> getAllProducts(@RequestParam(required = false) Integer limit,
+                                            @RequestParam(required = false) String cursor,
+                                            @RequestParam(defaultValue = "id") String sort,
+                                            @RequestParam(defaultValue = "full") String view,
+                                            WebRequest webRequest) {
+        if (limit != null) {
+            return getPage(null, false, limit, cursor, sort, view);
+        }
+        return getListing(webRequest, null, false, () -> productService.getAllProducts());
     }
 
     // ✅ Get product by ID
     @GetMapping("/{id}")
-    public ResponseEntity<?> getProductById(@PathVariable Long id) {
+    public ResponseEntity<?> getProductById(@PathVariable Long id, WebRequest webRequest) {
+        // Revalidation is answered from the cache or a version-only query, without loading the product
+        if (hasValidators(webRequest)) {
+            Optional<ProductVersion> version = productService.getProductVersion(id);
+            if (version.isPresent()
+                    && webRequest.checkNotModified(version.get().toEtag(), version.get().lastModifiedMillis())) {
+                return null;
+            }
+        }
         Optional<Product> product = productService.getProductById(id);
-        return product.isPresent() ? ResponseEntity.ok(product.get())
-                                   : ResponseEntity.notFound().build();
+        if (product.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        ProductVersion version = new ProductVersion(id, product.get().getVersion(), product.get().getUpdatedAt());
+        webRequest.checkNotModified(version.toEtag(), version.lastModifiedMillis());
+        return ResponseEntity.ok(product.get());
+    }
+
+    // ✅ Get several products by ID in one round trip
+    @PostMapping("/batch")
+    public ResponseEntity<?> getProductsByIds(@RequestBody ProductBatchRequest request) {
+        if (request.getIds() == null) {
+            return ResponseEntity.badRequest().body("ids must be provided");
+        }
+        try {
+            ProductBatchResponse response = productService.getProductsByIds(request.getIds());
+            return ResponseEntity.ok(response);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     // ✅ Add a new product
@@ -38,6 +100,21 @@ public class ProductController {
         return ResponseEntity.ok(savedProduct);
     }
 
+    // ✅ Bulk upsert products from a streamed CSV (text/csv) or NDJSON upload
+    @PostMapping(value = "/import", consumes = { "text/csv", "application/x-ndjson" })
+    public ResponseEntity<?> importProducts(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                            InputStream body) throws IOException {
+        ProductImportService.Format format = contentType.startsWith("text/csv")
+                ? ProductImportService.Format.CSV
+                : ProductImportService.Format.NDJSON;
+        try {
+            ProductImportReport report = productImportService.importProducts(format, body);
+            return ResponseEntity.ok(report);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
     // ✅ Update an existing product
     @PutMapping("/{id}")
     public ResponseEntity<?> updateProduct(@PathVariable Long id, @RequestBody Product updatedProduct) {
@@ -52,22 +129,139 @@ public class ProductController {
         productService.deleteProduct(id);
         return ResponseEntity.noContent().build();
     }
-    // Get products by category
+    // Get products by category (keyset-paginated when a limit is given)
     @GetMapping("/category/{category}")
-    public ResponseEntity<List<Product>> getProductsByCategory(@PathVariable String category) {
-        List<Product> products = productService.getProductsByCategory(category);
-        return ResponseEntity.ok(products);
+    public ResponseEntity<?> getProductsByCategory(@PathVariable String category,
+                                                   @RequestParam(required = false) Integer limit,
+                                                   @RequestParam(required = false) String cursor,
+                                                   @RequestParam(defaultValue = "id") String sort,
+                                                   @RequestParam(defaultValue = "full") String view,
+                                                   WebRequest webRequest) {
+        if (limit != null) {
+            return getPage(category, false, limit, cursor, sort, view);
+        }
+        return getListing(webRequest, category, false, () -> productService.getProductsByCategory(category));
     }
-    // Search products by name
+    // Browse a category by price range and price order, served from memory
+    @GetMapping("/browse")
+    public ResponseEntity<?> browseProducts(@RequestParam String category,
+                                            @RequestParam(required = false) Double minPrice,
+                                            @RequestParam(required = false) Double maxPrice,
+                                            @RequestParam(defaultValue = "false") boolean availableOnly,
+                                            @RequestParam(defaultValue = "price") String sort,
+                                            @RequestParam(required = false) String cursor,
+                                            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(productService.browseProducts(category, minPrice, maxPrice,
+                    availableOnly, sort, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(e.getMessage());
+        }
+    }
+    // Product count, available count and price range of every category
+    @GetMapping("/facets")
+    public ResponseEntity<List<CategoryFacet>> getCategoryFacets() {
+        return ResponseEntity.ok(productService.getCategoryFacets());
+    }
+    // Search products by name, best matches first
     @GetMapping("/search")
-    public ResponseEntity<List<Product>> searchProducts(@RequestParam String name) {
-        List<Product> products = productService.searchProductsByName(name);
-        return ResponseEntity.ok(products);
+    public ResponseEntity<?> searchProducts(@RequestParam String name,
+                                            @RequestParam(defaultValue = "20") int limit) {
+        try {
+            List<Product> products = productService.searchProductsByName(name, limit);
+            return ResponseEntity.ok(products);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
-    // Get only available products
+    // Get only available products (keyset-paginated when a limit is given)
     @GetMapping("/available")
-    public ResponseEntity<List<Product>> getAvailableProducts() {
-        List<Product> products = productService.getAvailableProducts();
+    public ResponseEntity<?> getAvailableProducts(@RequestParam(required = false) Integer limit,
+                                                  @RequestParam(required = false) String cursor,
+                                                  @RequestParam(defaultValue = "id") String sort,
+                                                  @RequestParam(defaultValue = "full") String view,
+                                                  WebRequest webRequest) {
+        if (limit != null) {
+            return getPage(null, true, limit, cursor, sort, view);
+        }
+        return getListing(webRequest, null, true, () -> productService.getAvailableProducts());
+    }
+    // Stream the catalog as NDJSON or CSV, optionally only products changed since a timestamp
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since) {
+        ProductExportService.Format exportFormat;
+        MediaType contentType;
+        if ("csv".equalsIgnoreCase(format)) {
+            exportFormat = ProductExportService.Format.CSV;
+            contentType = new MediaType("text", "csv");
+        } else if ("ndjson".equalsIgnoreCase(format)) {
+            exportFormat = ProductExportService.Format.NDJSON;
+            contentType = new MediaType("application", "x-ndjson");
+        } else {
+            return ResponseEntity.badRequest().build();
+        }
+        StreamingResponseBody body = out -> productExportService.export(exportFormat, since, out);
+        return ResponseEntity.ok().contentType(contentType).body(body);
+    }
+    // Long-poll the change feed: returns changes after the cursor as soon as one commits
+    @GetMapping("/changes")
+    public DeferredResult<?> getChanges(@RequestParam(defaultValue = "0") long after,
+                                        @RequestParam(defaultValue = "100") int limit,
+                                        @RequestParam(defaultValue = "25") long timeoutSeconds) {
+        try {
+            return productChangeFeed.poll(after, limit, timeoutSeconds);
+        } catch (IllegalArgumentException e) {
+            DeferredResult<ResponseEntity<String>> invalid = new DeferredResult<>();
+            invalid.setResult(ResponseEntity.badRequest().body(e.getMessage()));
+            return invalid;
+        }
+    }
+    // Product cache hit/miss/eviction counters
+    @GetMapping("/cache/stats")
+    public ResponseEntity<CacheStats> getCacheStats() {
+        return ResponseEntity.ok(productService.getCacheStats());
+    }
+
+    // Helper: Serve an unpaged listing with an ETag. The fingerprint query (ids and versions
+    // only) runs just to answer If-None-Match; otherwise the ETag comes from the loaded rows.
+    // Listings send no Last-Modified, so If-Modified-Since alone never yields a 304.
+    // Keyset pages carry no validators, so paging never pays for a scan of the whole listing.
+    private ResponseEntity<?> getListing(WebRequest webRequest, String category, boolean availableOnly,
+                                         Supplier<List<Product>> loader) {
+        if (webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null) {
+            ProductListVersion version = productService.getListVersion(category, availableOnly);
+            if (webRequest.checkNotModified(version.toEtag())) {
+                return null;
+            }
+            return ResponseEntity.ok(loader.get());
+        }
+        List<Product> products = loader.get();
+        webRequest.checkNotModified(ProductListVersion.of(products).toEtag());
         return ResponseEntity.ok(products);
     }
+
+    private static boolean hasValidators(WebRequest webRequest) {
+        return webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+                || webRequest.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null;
+    }
+
+    // Helper: Build a keyset page, either full products or summaries
+    private ResponseEntity<?> getPage(String category, boolean availableOnly, int limit,
+                                      String cursor, String sort, String view) {
+        try {
+            if ("summary".equalsIgnoreCase(view)) {
+                return ResponseEntity.ok(productService.getProductSummaryPage(category, availableOnly, sort, cursor, limit));
+            }
+            if (!"full".equalsIgnoreCase(view)) {
+                return ResponseEntity.badRequest().body("view must be 'full' or 'summary'");
+            }
+            return ResponseEntity.ok(productService.getProductPage(category, availableOnly, sort, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
 }
@@ -0,0 +1,43 @@
+package com.ecommerce.product.controller;
+
+import com.ecommerce.product.dto.ReserveStockRequest;
+import com.ecommerce.product.entity.StockReservation;
+import com.ecommerce.product.service.StockReservationService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/products")
+public class StockReservationController {
+
+    @Autowired
+    private StockReservationService reservationService;
+
+    // ✅ Hold stock of a product for a limited time
+    @PostMapping("/{productId}/reservations")
+    public ResponseEntity<StockReservation> reserve(@PathVariable Long productId,
+                                                    @RequestBody ReserveStockRequest request) {
+        StockReservation reservation = reservationService.reserve(productId, request.getQuantity(), request.getTtlSeconds());
+        return ResponseEntity.status(HttpStatus.CREATED).body(reservation);
+    }
+
+    // ✅ Get a reservation
+    @GetMapping("/reservations/{reservationId}")
+    public ResponseEntity<StockReservation> getReservation(@PathVariable Long reservationId) {
+        return ResponseEntity.ok(reservationService.getReservation(reservationId));
+    }
+
+    // ✅ Confirm a held reservation (stock stays taken)
+    @PostMapping("/reservations/{reservationId}/confirm")
+    public ResponseEntity<StockReservation> confirm(@PathVariable Long reservationId) {
+        return ResponseEntity.ok(reservationService.confirm(reservationId));
+    }
+
+    // ✅ Release a held reservation (stock is returned)
+    @PostMapping("/reservations/{reservationId}/release")
+    public ResponseEntity<StockReservation> release(@PathVariable Long reservationId) {
+        return ResponseEntity.ok(reservationService.release(reservationId));
+    }
+}
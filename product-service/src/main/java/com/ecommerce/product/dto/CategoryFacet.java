@@ -0,0 +1,14 @@
+package com.ecommerce.product.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CategoryFacet {
+    private String category;
+    private long count;
+    private long availableCount;
+    private Double minPrice;
+    private Double maxPrice;
+}
@@ -0,0 +1,11 @@
+package com.ecommerce.product.dto;
+
+import lombok.*;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBatchRequest {
+    private List<Long> ids;
+}
@@ -0,0 +1,14 @@
+package com.ecommerce.product.dto;
+
+import com.ecommerce.product.entity.Product;
+import lombok.*;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductBatchResponse {
+    private Map<Long, Product> products;
+    private List<Long> missingIds;
+}
@@ -0,0 +1,16 @@
+package com.ecommerce.product.dto;
+
+import lombok.*;
+
+// Fields the in-memory catalog indexes are built from
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductCatalogRow {
+    private Long id;
+    private String name;
+    private String category;
+    private double price;
+    private Boolean available;
+    private Long version;
+}
@@ -0,0 +1,14 @@
+package com.ecommerce.product.dto;
+
+import com.ecommerce.product.entity.ProductChange;
+import lombok.*;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductChangeBatch {
+    private List<ProductChange> changes;
+    // Pass back as ?after= to resume after the last change returned
+    private long nextCursor;
+}
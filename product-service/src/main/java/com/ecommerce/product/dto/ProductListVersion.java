@@ -0,0 +1,47 @@
+package com.ecommerce.product.dto;
+
+import com.ecommerce.product.entity.Product;
+import lombok.*;
+import java.util.List;
+
+// Fingerprint of a product listing: the row count plus an order-independent hash of
+// every (id, version) pair in it. Inserts, deletes, updates and rows moving in or out
+// of the category / availability filter all change the set of pairs, so they all
+// change the ETag; a row leaving while another enters cannot cancel out.
+// Listings carry no Last-Modified: MAX(updatedAt) does not move on deletes.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductListVersion {
+    private long count;
+    private long hash;
+
+    public static ProductListVersion of(List<Product> products) {
+        long hash = 0;
+        for (Product product : products) {
+            hash += mix(product.getId(), product.getVersion());
+        }
+        return new ProductListVersion(products.size(), hash);
+    }
+
+    // Same fingerprint from version-only rows, without hydrating products
+    public static ProductListVersion ofVersions(List<ProductVersion> versions) {
+        long hash = 0;
+        for (ProductVersion version : versions) {
+            hash += mix(version.getId(), version.getVersion());
+        }
+        return new ProductListVersion(versions.size(), hash);
+    }
+
+    public String toEtag() {
+        return "\"" + count + "-" + Long.toHexString(hash) + "\"";
+    }
+
+    // Helper: SplitMix64 finalizer over the pair, so sums of different pair sets do not collide in practice
+    private static long mix(Long id, Long version) {
+        long z = (id == null ? 0 : id) * 0x9E3779B97F4A7C15L + (version == null ? 0 : version);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,13 @@
+package com.ecommerce.product.dto;
+
+import lombok.*;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductPage<T> {
+    private List<T> items;
+    private String nextCursor;
+    private boolean hasMore;
+}
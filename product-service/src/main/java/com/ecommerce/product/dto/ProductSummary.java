@@ -0,0 +1,13 @@
+package com.ecommerce.product.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSummary {
+    private Long id;
+    private String name;
+    private double price;
+    private Boolean available;
+}
@@ -0,0 +1,23 @@
+package com.ecommerce.product.dto;
+
+import lombok.*;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+// Validators of a single product, loaded without the product itself
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductVersion {
+    private Long id;
+    private Long version;
+    private LocalDateTime updatedAt;
+
+    public String toEtag() {
+        return "\"" + id + "-" + version + "\"";
+    }
+
+    public long lastModifiedMillis() {
+        return updatedAt == null ? -1 : updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
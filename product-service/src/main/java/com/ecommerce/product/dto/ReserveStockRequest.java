@@ -0,0 +1,11 @@
+package com.ecommerce.product.dto;
+
+import lombok.*;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReserveStockRequest {
+    private Integer quantity;
+    private Long ttlSeconds;
+}
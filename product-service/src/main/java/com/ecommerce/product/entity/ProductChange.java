@@ -0,0 +1,36 @@
+package com.ecommerce.product.entity;
+
+import com.ecommerce.product.enums.ProductChangeType;
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+// Append-only change log row, written in the same transaction as the product change.
+// id is AUTO_INCREMENT so it doubles as the feed's resumable sequence cursor.
+@Entity
+@Table(name = "product_changes", indexes = {
+        @Index(name = "idx_product_changes_created_at", columnList = "created_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductChange {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", nullable = false)
+    private ProductChangeType changeType;
+
+    private Double price;
+    private Boolean available;
+    private Integer stock;
+    private Long version;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,8 @@
+package com.ecommerce.product.enums;
+
+public enum ProductChangeType {
+    CREATED,
+    UPDATED,
+    STOCK_CHANGED,
+    DELETED
+}
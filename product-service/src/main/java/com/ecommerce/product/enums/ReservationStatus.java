@@ -0,0 +1,8 @@
+package com.ecommerce.product.enums;
+
+public enum ReservationStatus {
+    HELD,
+    CONFIRMED,
+    RELEASED,
+    EXPIRED
+}
@@ -0,0 +1,19 @@
+package com.ecommerce.product.event;
+
+import com.ecommerce.product.entity.Product;
+import com.ecommerce.product.enums.ProductChangeType;
+import lombok.*;
+
+// Published inside the transaction that creates, updates or deletes a product.
+// product is the written state, or null when the product was deleted.
+@Getter
+@AllArgsConstructor
+public class ProductChangedEvent {
+    private final Long productId;
+    private final ProductChangeType type;
+    private final Product product;
+
+    public boolean isDeleted() {
+        return type == ProductChangeType.DELETED;
+    }
+}
@@ -0,0 +1,24 @@
+package com.ecommerce.product.exception;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+@RestControllerAdvice
+public class GlobalExceptionHandler {
+
+    @ExceptionHandler(StockReservationException.class)
+    public ResponseEntity<Map<String, Object>> handleStockReservationException(StockReservationException ex) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("timestamp", LocalDateTime.now());
+        error.put("status", ex.getStatus().value());
+        error.put("error", ex.getStatus().getReasonPhrase());
+        error.put("message", ex.getMessage());
+
+        return ResponseEntity.status(ex.getStatus()).body(error);
+    }
+}
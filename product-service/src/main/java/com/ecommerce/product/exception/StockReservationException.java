@@ -0,0 +1,14 @@
+package com.ecommerce.product.exception;
+
+import lombok.Getter;
+import org.springframework.http.HttpStatus;
+
+@Getter
+public class StockReservationException extends RuntimeException {
+    private final HttpStatus status;
+
+    public StockReservationException(HttpStatus status, String message) {
+        super(message);
+        this.status = status;
+    }
+}
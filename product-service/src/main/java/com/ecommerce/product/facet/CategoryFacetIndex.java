@@ -0,0 +1,164 @@
+package com.ecommerce.product.facet;
+
+import com.ecommerce.product.dto.CategoryFacet;
+import com.ecommerce.product.dto.ProductCatalogRow;
+import com.ecommerce.product.entity.Product;
+import com.ecommerce.product.event.ProductChangedEvent;
+import com.ecommerce.product.repository.ProductRepository;
+import com.ecommerce.product.util.ProductTombstones;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+// Per-category product counts and price ranges, maintained incrementally.
+// Each product's last known (category, price, available) is kept so a write
+// can be applied as "remove old contribution, add new one"; prices per category
+// are a counted multiset so min/max stay exact when the cheapest product leaves.
+// Each contribution keeps the product version it came from, and an event that is
+// not newer (or is for a recently deleted product) is ignored, so listeners that
+// run out of commit order cannot re-apply an older state.
+@Component
+public class CategoryFacetIndex {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private final Object lock = new Object();
+    private final Map<Long, Contribution> contributions = new HashMap<>();
+    private final Map<String, Facet> facets = new HashMap<>();
+    private final ProductTombstones tombstones;
+    // Products written while the build was running; their rows from the build are stale
+    private Set<Long> touchedDuringBuild = new HashSet<>();
+    private volatile boolean ready;
+
+    public CategoryFacetIndex(@Value("${product.index.tombstone-retention-seconds:600}") long tombstoneRetentionSeconds) {
+        this.tombstones = new ProductTombstones(TimeUnit.SECONDS.toNanos(tombstoneRetentionSeconds));
+    }
+
+    // Build the aggregates from the catalog in keyset chunks once the application is up
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long afterId = 0L;
+        while (true) {
+            List<ProductCatalogRow> chunk = productRepository.findCatalogRowsOrderById(afterId, Limit.of(CHUNK_SIZE));
+            if (chunk.isEmpty()) {
+                break;
+            }
+            synchronized (lock) {
+                for (ProductCatalogRow row : chunk) {
+                    if (!touchedDuringBuild.contains(row.getId())) {
+                        apply(row.getId(), new Contribution(row.getCategory(), row.getPrice(),
+                                Boolean.TRUE.equals(row.getAvailable()), row.getVersion()));
+                    }
+                }
+            }
+            afterId = chunk.get(chunk.size() - 1).getId();
+        }
+        synchronized (lock) {
+            touchedDuringBuild = null;
+            ready = true;
+            System.out.println("✅ Category facet index built with " + facets.size() + " categories");
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        Product product = event.getProduct();
+        Contribution contribution = event.isDeleted() ? null
+                : new Contribution(product.getCategory(), product.getPrice(),
+                                   Boolean.TRUE.equals(product.getAvailable()), product.getVersion());
+        synchronized (lock) {
+            if (touchedDuringBuild != null) {
+                touchedDuringBuild.add(event.getProductId());
+            }
+            if (contribution == null) {
+                tombstones.add(event.getProductId());
+            } else if (isStale(event.getProductId(), contribution)) {
+                return;
+            }
+            apply(event.getProductId(), contribution);
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Facets of every category, sorted by name
+    public List<CategoryFacet> getFacets() {
+        List<CategoryFacet> result = new ArrayList<>();
+        synchronized (lock) {
+            for (Map.Entry<String, Facet> entry : new TreeMap<>(facets).entrySet()) {
+                Facet facet = entry.getValue();
+                result.add(new CategoryFacet(entry.getKey(), facet.count, facet.availableCount,
+                        facet.prices.firstKey(), facet.prices.lastKey()));
+            }
+        }
+        return result;
+    }
+
+    // Must hold lock
+    private boolean isStale(Long id, Contribution next) {
+        if (tombstones.contains(id)) {
+            return true;
+        }
+        Contribution current = contributions.get(id);
+        return current != null && current.version() != null && next.version() != null
+                && next.version() <= current.version();
+    }
+
+    // Must hold lock. A null contribution removes the product.
+    private void apply(Long id, Contribution next) {
+        Contribution previous = next == null ? contributions.remove(id) : contributions.put(id, next);
+        if (previous != null && previous.category() != null) {
+            Facet facet = facets.get(previous.category());
+            facet.remove(previous);
+            if (facet.count == 0) {
+                facets.remove(previous.category());
+            }
+        }
+        if (next != null && next.category() != null) {
+            facets.computeIfAbsent(next.category(), c -> new Facet()).add(next);
+        }
+    }
+
+    private static final class Facet {
+        private long count;
+        private long availableCount;
+        private final TreeMap<Double, Integer> prices = new TreeMap<>();
+
+        private void add(Contribution contribution) {
+            count++;
+            if (contribution.available()) {
+                availableCount++;
+            }
+            prices.merge(contribution.price(), 1, Integer::sum);
+        }
+
+        private void remove(Contribution contribution) {
+            count--;
+            if (contribution.available()) {
+                availableCount--;
+            }
+            prices.computeIfPresent(contribution.price(), (price, n) -> n == 1 ? null : n - 1);
+        }
+    }
+
+    private record Contribution(String category, double price, boolean available, Long version) {
+    }
+}
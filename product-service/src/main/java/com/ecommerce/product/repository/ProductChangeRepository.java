@@ -0,0 +1,13 @@
+package com.ecommerce.product.repository;
+
+import com.ecommerce.product.entity.ProductChange;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ProductChangeRepository extends JpaRepository<ProductChange, Long> {
+    List<ProductChange> findByIdGreaterThanOrderById(Long afterId, Limit limit);
+}
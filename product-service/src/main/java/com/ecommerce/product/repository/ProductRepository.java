@@ -1,10 +1,20 @@
 package com.ecommerce.product.repository;
 
+import com.ecommerce.product.dto.CategoryFacet;
+import com.ecommerce.product.dto.ProductCatalogRow;
+import com.ecommerce.product.dto.ProductSummary;
+import com.ecommerce.product.dto.ProductVersion;
 import com.ecommerce.product.entity.Product;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
@@ -14,4 +24,98 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
 
     List<Product> findByNameContainingIgnoreCase(String name);
     List<Product> findByAvailableTrue();
+
+    // Keyset pages ordered by id, optionally filtered by category / availability
+    @Query("SELECT p FROM Product p " +
+           "WHERE (:category IS NULL OR p.category = :category) " +
+           "AND (:availableOnly = false OR p.available = true) " +
+           "AND p.id > :afterId ORDER BY p.id")
+    List<Product> findPageOrderById(@Param("category") String category,
+                                    @Param("availableOnly") boolean availableOnly,
+                                    @Param("afterId") long afterId,
+                                    Limit limit);
+
+    @Query("SELECT new com.ecommerce.product.dto.ProductSummary(p.id, p.name, p.price, p.available) " +
+           "FROM Product p " +
+           "WHERE (:category IS NULL OR p.category = :category) " +
+           "AND (:availableOnly = false OR p.available = true) " +
+           "AND p.id > :afterId ORDER BY p.id")
+    List<ProductSummary> findSummaryPageOrderById(@Param("category") String category,
+                                                  @Param("availableOnly") boolean availableOnly,
+                                                  @Param("afterId") long afterId,
+                                                  Limit limit);
+
+    // Keyset pages ordered by (price, id)
+    @Query("SELECT p FROM Product p " +
+           "WHERE (:category IS NULL OR p.category = :category) " +
+           "AND (:availableOnly = false OR p.available = true) " +
+           "AND (p.price > :afterPrice OR (p.price = :afterPrice AND p.id > :afterId)) " +
+           "ORDER BY p.price, p.id")
+    List<Product> findPageOrderByPrice(@Param("category") String category,
+                                       @Param("availableOnly") boolean availableOnly,
+                                       @Param("afterPrice") double afterPrice,
+                                       @Param("afterId") long afterId,
+                                       Limit limit);
+
+    @Query("SELECT new com.ecommerce.product.dto.ProductSummary(p.id, p.name, p.price, p.available) " +
+           "FROM Product p " +
+           "WHERE (:category IS NULL OR p.category = :category) " +
+           "AND (:availableOnly = false OR p.available = true) " +
+           "AND (p.price > :afterPrice OR (p.price = :afterPrice AND p.id > :afterId)) " +
+           "ORDER BY p.price, p.id")
+    List<ProductSummary> findSummaryPageOrderByPrice(@Param("category") String category,
+                                                     @Param("availableOnly") boolean availableOnly,
+                                                     @Param("afterPrice") double afterPrice,
+                                                     @Param("afterId") long afterId,
+                                                     Limit limit);
+
+    // Keyset pages ordered by (updatedAt, id), used for incremental exports
+    @Query("SELECT p FROM Product p " +
+           "WHERE p.updatedAt > :afterUpdatedAt " +
+           "OR (p.updatedAt = :afterUpdatedAt AND p.id > :afterId) " +
+           "ORDER BY p.updatedAt, p.id")
+    List<Product> findPageOrderByUpdatedAt(@Param("afterUpdatedAt") LocalDateTime afterUpdatedAt,
+                                           @Param("afterId") long afterId,
+                                           Limit limit);
+
+    // Keyset chunks of the fields the in-memory catalog indexes need
+    @Query("SELECT new com.ecommerce.product.dto.ProductCatalogRow(p.id, p.name, p.category, p.price, p.available, p.version) " +
+           "FROM Product p WHERE p.id > :afterId ORDER BY p.id")
+    List<ProductCatalogRow> findCatalogRowsOrderById(@Param("afterId") long afterId, Limit limit);
+
+    // Per-category aggregates computed by MySQL; only used until the facet index is built
+    @Query("SELECT new com.ecommerce.product.dto.CategoryFacet(p.category, COUNT(p), " +
+           "SUM(CASE WHEN p.available = true THEN 1 ELSE 0 END), MIN(p.price), MAX(p.price)) " +
+           "FROM Product p WHERE p.category IS NOT NULL GROUP BY p.category ORDER BY p.category")
+    List<CategoryFacet> findCategoryFacets();
+
+    // Conditional GET validators, read without hydrating products
+    @Query("SELECT new com.ecommerce.product.dto.ProductVersion(p.id, p.version, p.updatedAt) " +
+           "FROM Product p WHERE p.id = :id")
+    Optional<ProductVersion> findVersionById(@Param("id") Long id);
+
+    @Query("SELECT new com.ecommerce.product.dto.ProductVersion(p.id, p.version, p.updatedAt) " +
+           "FROM Product p " +
+           "WHERE (:category IS NULL OR p.category = :category) " +
+           "AND (:availableOnly = false OR p.available = true)")
+    List<ProductVersion> findListVersions(@Param("category") String category,
+                                          @Param("availableOnly") boolean availableOnly);
+
+    // Atomically take stock from an available product if enough is left; flips available
+    // off when it reaches zero. available is assigned first so it is computed from the
+    // stock before the decrement. Products an admin marked unavailable are never touched.
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE Product p SET " +
+           "p.available = CASE WHEN p.stock = :quantity THEN false ELSE p.available END, " +
+           "p.stock = p.stock - :quantity, p.version = p.version + 1, p.updatedAt = :now " +
+           "WHERE p.id = :id AND p.available = true AND p.stock >= :quantity")
+    int decrementStock(@Param("id") Long id, @Param("quantity") int quantity, @Param("now") LocalDateTime now);
+
+    // Give stock back; a product that was sold out becomes available again, but one an
+    // admin marked unavailable while it still had stock stays unavailable
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE Product p SET " +
+           "p.available = CASE WHEN p.stock = 0 THEN true ELSE p.available END, " +
+           "p.stock = p.stock + :quantity, p.version = p.version + 1, p.updatedAt = :now WHERE p.id = :id")
+    int incrementStock(@Param("id") Long id, @Param("quantity") int quantity, @Param("now") LocalDateTime now);
 }
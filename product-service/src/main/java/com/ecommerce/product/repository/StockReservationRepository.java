@@ -0,0 +1,30 @@
+package com.ecommerce.product.repository;
+
+import com.ecommerce.product.entity.StockReservation;
+import com.ecommerce.product.enums.ReservationStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+
+    List<StockReservation> findByStatusAndExpiresAtBeforeOrderByExpiresAt(ReservationStatus status,
+                                                                          LocalDateTime now,
+                                                                          Limit limit);
+
+    // Compare-and-set on the status so concurrent confirm/release/expiry cannot both win
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE StockReservation r SET r.status = :to, r.updatedAt = :now " +
+           "WHERE r.id = :id AND r.status = :from")
+    int transition(@Param("id") Long id,
+                   @Param("from") ReservationStatus from,
+                   @Param("to") ReservationStatus to,
+                   @Param("now") LocalDateTime now);
+}
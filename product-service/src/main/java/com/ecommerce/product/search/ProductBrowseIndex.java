@@ -0,0 +1,352 @@
+package com.ecommerce.product.search;
+
+import com.ecommerce.product.dto.ProductCatalogRow;
+import com.ecommerce.product.dto.ProductSummary;
+import com.ecommerce.product.entity.Product;
+import com.ecommerce.product.event.ProductChangedEvent;
+import com.ecommerce.product.repository.ProductRepository;
+import com.ecommerce.product.util.ProductTombstones;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Columnar in-memory index for browsing a category by price.
+// Each category is a set of parallel arrays sorted by (price, id). Queries take a
+// snapshot without locking, binary-search the start of the price range (or the
+// cursor) and walk towards the end of the range until the page is full.
+// Writes replace a category's arrays with a patched copy (copy-on-write). The events of
+// one transaction are applied together after it commits, so a bulk import copies each
+// category it touches once, and writes that leave (name, category, price, available)
+// unchanged, such as most stock changes, copy nothing. Events whose product version
+// is not newer than the indexed row, or that are for a recently deleted product, are
+// ignored, so listeners that run out of commit order cannot re-apply an older state.
+@Component
+public class ProductBrowseIndex {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private final Object lock = new Object();
+    private final ConcurrentHashMap<String, Column> columns = new ConcurrentHashMap<>();
+    // Last indexed state of every product, to locate its old position on change
+    private final Map<Long, Row> rows = new HashMap<>();
+    private final ProductTombstones tombstones;
+    // Products written while the build was running; their rows from the build are stale
+    private Set<Long> touchedDuringBuild = new HashSet<>();
+    private volatile boolean ready;
+
+    public ProductBrowseIndex(@Value("${product.index.tombstone-retention-seconds:600}") long tombstoneRetentionSeconds) {
+        this.tombstones = new ProductTombstones(TimeUnit.SECONDS.toNanos(tombstoneRetentionSeconds));
+    }
+
+    // Load the catalog in keyset chunks once the application is up, then lay out the columns
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long afterId = 0L;
+        while (true) {
+            List<ProductCatalogRow> chunk = productRepository.findCatalogRowsOrderById(afterId, Limit.of(CHUNK_SIZE));
+            if (chunk.isEmpty()) {
+                break;
+            }
+            synchronized (lock) {
+                for (ProductCatalogRow row : chunk) {
+                    if (!touchedDuringBuild.contains(row.getId())) {
+                        rows.put(row.getId(), new Row(row.getId(), row.getName(), row.getCategory(),
+                                row.getPrice(), Boolean.TRUE.equals(row.getAvailable()), row.getVersion()));
+                    }
+                }
+            }
+            afterId = chunk.get(chunk.size() - 1).getId();
+        }
+        synchronized (lock) {
+            Map<String, List<Row>> byCategory = new HashMap<>();
+            for (Row row : rows.values()) {
+                if (row.category() != null) {
+                    byCategory.computeIfAbsent(row.category(), c -> new ArrayList<>()).add(row);
+                }
+            }
+            for (Map.Entry<String, List<Row>> entry : byCategory.entrySet()) {
+                columns.put(entry.getKey(), Column.of(entry.getValue()));
+            }
+            touchedDuringBuild = null;
+            ready = true;
+            System.out.println("✅ Product browse index built with " + rows.size() + " products in "
+                    + columns.size() + " categories");
+        }
+    }
+
+    // Runs in the publisher's transaction; the events are applied once it commits
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(List.of(event));
+            return;
+        }
+        PendingEvents pending = (PendingEvents) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingEvents();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.events.add(event);
+    }
+
+    private void apply(List<ProductChangedEvent> events) {
+        synchronized (lock) {
+            // State of each changed product before this batch, to find its old position
+            Map<Long, Row> previousRows = new HashMap<>();
+            for (ProductChangedEvent event : events) {
+                Product product = event.getProduct();
+                Row next = event.isDeleted() ? null
+                        : new Row(event.getProductId(), product.getName(), product.getCategory(),
+                                  product.getPrice(), Boolean.TRUE.equals(product.getAvailable()), product.getVersion());
+                if (touchedDuringBuild != null) {
+                    touchedDuringBuild.add(event.getProductId());
+                }
+                if (next == null) {
+                    tombstones.add(event.getProductId());
+                } else if (isStale(next)) {
+                    continue;
+                }
+                Row previous = next == null ? rows.remove(event.getProductId()) : rows.put(event.getProductId(), next);
+                if (!previousRows.containsKey(event.getProductId())) {
+                    previousRows.put(event.getProductId(), previous);
+                }
+            }
+            if (!ready) {
+                return;
+            }
+
+            Map<String, Set<Long>> removedByCategory = new HashMap<>();
+            Map<String, List<Row>> addedByCategory = new HashMap<>();
+            for (Map.Entry<Long, Row> entry : previousRows.entrySet()) {
+                Row previous = entry.getValue();
+                Row next = rows.get(entry.getKey());
+                if (sameListing(previous, next)) {
+                    continue;
+                }
+                if (previous != null && previous.category() != null) {
+                    removedByCategory.computeIfAbsent(previous.category(), c -> new HashSet<>()).add(previous.id());
+                }
+                if (next != null && next.category() != null) {
+                    addedByCategory.computeIfAbsent(next.category(), c -> new ArrayList<>()).add(next);
+                }
+            }
+            Set<String> categories = new HashSet<>(removedByCategory.keySet());
+            categories.addAll(addedByCategory.keySet());
+            for (String category : categories) {
+                Column column = columns.getOrDefault(category, Column.EMPTY).patched(
+                        removedByCategory.getOrDefault(category, Set.of()),
+                        addedByCategory.getOrDefault(category, List.of()));
+                if (column.size() == 0) {
+                    columns.remove(category);
+                } else {
+                    columns.put(category, column);
+                }
+            }
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Up to fetch products of a category priced within [minPrice, maxPrice], ordered by
+    // (price, id) ascending or descending, starting after the (afterPrice, afterId) cursor
+    public List<ProductSummary> browse(String category, double minPrice, double maxPrice, boolean availableOnly,
+                                       boolean descending, Double afterPrice, long afterId, int fetch) {
+        Column column = columns.get(category);
+        List<ProductSummary> result = new ArrayList<>(Math.min(fetch, 64));
+        if (column == null) {
+            return result;
+        }
+        if (descending) {
+            int i = afterPrice == null
+                    ? column.upperBound(maxPrice, Long.MAX_VALUE) - 1
+                    : Math.min(column.lowerBound(afterPrice, afterId), column.upperBound(maxPrice, Long.MAX_VALUE)) - 1;
+            for (; i >= 0 && column.prices[i] >= minPrice && result.size() < fetch; i--) {
+                if (!availableOnly || column.available[i]) {
+                    result.add(column.summary(i));
+                }
+            }
+        } else {
+            int i = afterPrice == null
+                    ? column.lowerBound(minPrice, Long.MIN_VALUE)
+                    : Math.max(column.upperBound(afterPrice, afterId), column.lowerBound(minPrice, Long.MIN_VALUE));
+            for (; i < column.size() && column.prices[i] <= maxPrice && result.size() < fetch; i++) {
+                if (!availableOnly || column.available[i]) {
+                    result.add(column.summary(i));
+                }
+            }
+        }
+        return result;
+    }
+
+    // Must hold lock
+    private boolean isStale(Row next) {
+        if (tombstones.contains(next.id())) {
+            return true;
+        }
+        Row current = rows.get(next.id());
+        return current != null && current.version() != null && next.version() != null
+                && next.version() <= current.version();
+    }
+
+    // Helper: Whether two states of a product occupy the same place in the columns
+    private static boolean sameListing(Row a, Row b) {
+        if (a == null || b == null) {
+            return a == b;
+        }
+        return a.id() == b.id() && Objects.equals(a.name(), b.name()) && Objects.equals(a.category(), b.category())
+                && Double.compare(a.price(), b.price()) == 0 && a.available() == b.available();
+    }
+
+    private final class PendingEvents implements TransactionSynchronization {
+        private final List<ProductChangedEvent> events = new ArrayList<>();
+
+        @Override
+        public void afterCommit() {
+            apply(events);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(ProductBrowseIndex.this);
+        }
+    }
+
+    // Immutable once published
+    private static final class Column {
+        private static final Comparator<Row> ORDER = Comparator.comparingDouble(Row::price).thenComparingLong(Row::id);
+
+        private static final Column EMPTY = new Column(new double[0], new long[0], new String[0], new boolean[0]);
+
+        private final double[] prices;
+        private final long[] ids;
+        private final String[] names;
+        private final boolean[] available;
+
+        private Column(double[] prices, long[] ids, String[] names, boolean[] available) {
+            this.prices = prices;
+            this.ids = ids;
+            this.names = names;
+            this.available = available;
+        }
+
+        private static Column of(List<Row> rows) {
+            rows.sort(ORDER);
+            Column column = new Column(new double[rows.size()], new long[rows.size()],
+                    new String[rows.size()], new boolean[rows.size()]);
+            for (int i = 0; i < rows.size(); i++) {
+                column.set(i, rows.get(i));
+            }
+            return column;
+        }
+
+        private int size() {
+            return ids.length;
+        }
+
+        // First position whose (price, id) is >= the key
+        private int lowerBound(double price, long id) {
+            int low = 0;
+            int high = ids.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (compare(mid, price, id) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        // First position whose (price, id) is > the key
+        private int upperBound(double price, long id) {
+            int low = 0;
+            int high = ids.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (compare(mid, price, id) <= 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private int compare(int position, double price, long id) {
+            int byPrice = Double.compare(prices[position], price);
+            return byPrice != 0 ? byPrice : Long.compare(ids[position], id);
+        }
+
+        // One copy with the given ids dropped and the rows merged in at their (price, id) positions
+        private Column patched(Set<Long> removedIds, List<Row> added) {
+            List<Row> sorted = new ArrayList<>(added);
+            sorted.sort(ORDER);
+            int kept = 0;
+            for (long id : ids) {
+                if (!removedIds.contains(id)) {
+                    kept++;
+                }
+            }
+            int size = kept + sorted.size();
+            Column copy = new Column(new double[size], new long[size], new String[size], new boolean[size]);
+            int from = 0;
+            int next = 0;
+            for (int to = 0; to < size; to++) {
+                while (from < ids.length && removedIds.contains(ids[from])) {
+                    from++;
+                }
+                if (next < sorted.size() && (from == ids.length
+                        || compare(from, sorted.get(next).price(), sorted.get(next).id()) > 0)) {
+                    copy.set(to, sorted.get(next++));
+                } else {
+                    copy.copyFrom(this, from++, to, 1);
+                }
+            }
+            return copy;
+        }
+
+        private void set(int position, Row row) {
+            prices[position] = row.price();
+            ids[position] = row.id();
+            names[position] = row.name();
+            available[position] = row.available();
+        }
+
+        private void copyFrom(Column source, int from, int to, int length) {
+            System.arraycopy(source.prices, from, prices, to, length);
+            System.arraycopy(source.ids, from, ids, to, length);
+            System.arraycopy(source.names, from, names, to, length);
+            System.arraycopy(source.available, from, available, to, length);
+        }
+
+        private ProductSummary summary(int position) {
+            return new ProductSummary(ids[position], names[position], prices[position], available[position]);
+        }
+    }
+
+    private record Row(long id, String name, String category, double price, boolean available, Long version) {
+    }
+}
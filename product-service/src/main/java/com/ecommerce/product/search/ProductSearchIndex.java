@@ -0,0 +1,334 @@
+package com.ecommerce.product.search;
+
+import com.ecommerce.product.dto.ProductCatalogRow;
+import com.ecommerce.product.event.ProductChangedEvent;
+import com.ecommerce.product.repository.ProductRepository;
+import com.ecommerce.product.util.ProductTombstones;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// In-memory trigram index over product names.
+// Each name is normalized (lower case, punctuation collapsed to spaces) and split
+// into overlapping 3-character grams; every gram maps to the IDs containing it.
+// A query only probes the rarest grams it needs to reach the minimum similarity,
+// so lookup cost follows the size of the matching postings, not the catalog.
+// The 1- and 2-character substrings of each name are posted too, so typeahead
+// queries shorter than a gram are answered from postings instead of a scan.
+// Events whose product version is not newer than the indexed document, or that are
+// for a recently deleted product, are ignored, so listeners that run out of commit
+// order cannot re-index an older name or a deleted product.
+@Component
+public class ProductSearchIndex {
+
+    private static final int GRAM_SIZE = 3;
+    private static final int CHUNK_SIZE = 1000;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Value("${product.search.min-similarity:0.5}")
+    private double minSimilarity;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Set<Long>> postings = new HashMap<>();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final ProductTombstones tombstones;
+    // Products written while the build was running; their rows from the build are stale
+    private Set<Long> touchedDuringBuild = new HashSet<>();
+    private volatile boolean ready;
+
+    public ProductSearchIndex(@Value("${product.index.tombstone-retention-seconds:600}") long tombstoneRetentionSeconds) {
+        this.tombstones = new ProductTombstones(TimeUnit.SECONDS.toNanos(tombstoneRetentionSeconds));
+    }
+
+    // Build the index from the catalog in keyset chunks once the application is up
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long afterId = 0L;
+        while (true) {
+            List<ProductCatalogRow> chunk = productRepository.findCatalogRowsOrderById(afterId, Limit.of(CHUNK_SIZE));
+            if (chunk.isEmpty()) {
+                break;
+            }
+            lock.writeLock().lock();
+            try {
+                for (ProductCatalogRow row : chunk) {
+                    if (!touchedDuringBuild.contains(row.getId())) {
+                        indexLocked(row.getId(), row.getName(), row.getVersion());
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            afterId = chunk.get(chunk.size() - 1).getId();
+        }
+        int indexed;
+        lock.writeLock().lock();
+        try {
+            touchedDuringBuild = null;
+            ready = true;
+            indexed = documents.size();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        System.out.println("✅ Product search index built with " + indexed + " products");
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (touchedDuringBuild != null) {
+                touchedDuringBuild.add(event.getProductId());
+            }
+            if (event.isDeleted()) {
+                tombstones.add(event.getProductId());
+                removeLocked(event.getProductId());
+            } else if (!isStale(event.getProductId(), event.getProduct().getVersion())) {
+                indexLocked(event.getProductId(), event.getProduct().getName(), event.getProduct().getVersion());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void index(Long id, String name) {
+        lock.writeLock().lock();
+        try {
+            indexLocked(id, name, null);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Returns matching product IDs, best match first
+    public List<Long> search(String query, int limit) {
+        String normalized = normalize(query);
+        if (normalized.isEmpty()) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            List<Match> matches = normalized.length() < GRAM_SIZE
+                    ? probeShortQuery(normalized, limit)
+                    : probeGrams(normalized);
+            matches.sort(Comparator.comparingDouble(Match::score).reversed()
+                    .thenComparingLong(Match::id));
+            List<Long> ids = new ArrayList<>(Math.min(limit, matches.size()));
+            for (int i = 0; i < matches.size() && i < limit; i++) {
+                ids.add(matches.get(i).id());
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Must hold write lock
+    private boolean isStale(Long id, Long version) {
+        if (tombstones.contains(id)) {
+            return true;
+        }
+        Document current = documents.get(id);
+        return current != null && current.version() != null && version != null && version <= current.version();
+    }
+
+    // Must hold write lock
+    private void indexLocked(Long id, String name, Long version) {
+        removeLocked(id);
+        String normalized = normalize(name);
+        Set<String> grams = grams(normalized);
+        documents.put(id, new Document(normalized, grams, version));
+        for (String gram : grams) {
+            postings.computeIfAbsent(gram, g -> new HashSet<>()).add(id);
+        }
+        for (String gram : shortGrams(normalized)) {
+            postings.computeIfAbsent(gram, g -> new HashSet<>()).add(id);
+        }
+    }
+
+    // Must hold write lock
+    private void removeLocked(Long id) {
+        Document previous = documents.remove(id);
+        if (previous == null) {
+            return;
+        }
+        for (String gram : previous.grams()) {
+            unpost(gram, id);
+        }
+        for (String gram : shortGrams(previous.name())) {
+            unpost(gram, id);
+        }
+    }
+
+    // Must hold write lock
+    private void unpost(String gram, Long id) {
+        Set<Long> ids = postings.get(gram);
+        if (ids != null) {
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                postings.remove(gram);
+            }
+        }
+    }
+
+    // Must hold read lock
+    private List<Match> probeGrams(String normalized) {
+        List<String> queryGrams = new ArrayList<>(grams(normalized));
+        queryGrams.sort(Comparator.comparingInt(gram -> postingSize(gram)));
+
+        // A document reaching the threshold must contain at least one of the rarest
+        // (total - required + 1) grams, so only those postings are probed
+        int required = Math.max(1, (int) Math.ceil(minSimilarity * queryGrams.size()));
+        int probes = queryGrams.size() - required + 1;
+        Set<Long> candidates = new LinkedHashSet<>();
+        for (int i = 0; i < probes; i++) {
+            Set<Long> ids = postings.get(queryGrams.get(i));
+            if (ids != null) {
+                candidates.addAll(ids);
+            }
+        }
+
+        List<Match> matches = new ArrayList<>();
+        for (Long id : candidates) {
+            Document document = documents.get(id);
+            int shared = 0;
+            for (String gram : queryGrams) {
+                if (document.grams().contains(gram)) {
+                    shared++;
+                }
+            }
+            if (shared >= required) {
+                double similarity = (double) shared / (queryGrams.size() + document.grams().size() - shared);
+                matches.add(new Match(id, similarity + containmentBonus(document.name(), normalized)));
+            }
+        }
+        return matches;
+    }
+
+    // Must hold read lock. Queries shorter than one gram are answered from the postings of
+    // " q" (names with a word starting with q) and "q" (names containing q). Word-prefix hits
+    // outrank plain substring hits, so the latter are only read when there are too few of the former.
+    private List<Match> probeShortQuery(String normalized, int limit) {
+        Set<Long> candidates = new LinkedHashSet<>();
+        Set<Long> wordPrefixed = postings.get(" " + normalized);
+        if (wordPrefixed != null) {
+            candidates.addAll(wordPrefixed);
+        }
+        if (candidates.size() < limit) {
+            Set<Long> containing = postings.get(normalized);
+            if (containing != null) {
+                candidates.addAll(containing);
+            }
+        }
+        List<Match> matches = new ArrayList<>(candidates.size());
+        for (Long id : candidates) {
+            matches.add(new Match(id, containmentBonus(documents.get(id).name(), normalized)));
+        }
+        return matches;
+    }
+
+    private int postingSize(String gram) {
+        Set<Long> ids = postings.get(gram);
+        return ids == null ? 0 : ids.size();
+    }
+
+    // Exact substring hits rank above fuzzy ones, word prefixes above the rest
+    private static double containmentBonus(String name, String query) {
+        int position = name.indexOf(query);
+        if (position < 0) {
+            return 0.0;
+        }
+        if (position == 0) {
+            return 2.0;
+        }
+        return name.charAt(position - 1) == ' ' ? 1.5 : 1.0;
+    }
+
+    private static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder normalized = new StringBuilder(text.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace && normalized.length() > 0) {
+                    normalized.append(' ');
+                }
+                normalized.append(c);
+                pendingSpace = false;
+            } else {
+                pendingSpace = true;
+            }
+        }
+        return normalized.toString();
+    }
+
+    private static Set<String> grams(String normalized) {
+        Set<String> grams = new HashSet<>();
+        if (normalized.isEmpty()) {
+            return grams;
+        }
+        String padded = " " + normalized + " ";
+        for (int i = 0; i + GRAM_SIZE <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + GRAM_SIZE));
+        }
+        return grams;
+    }
+
+    // Helper: The 1- and 2-character substrings of the padded name, keyed apart from trigrams by length
+    private static Set<String> shortGrams(String normalized) {
+        Set<String> grams = new HashSet<>();
+        if (normalized.isEmpty()) {
+            return grams;
+        }
+        String padded = " " + normalized + " ";
+        for (int size = 1; size < GRAM_SIZE; size++) {
+            for (int i = 0; i + size <= padded.length(); i++) {
+                String gram = padded.substring(i, i + size);
+                if (!gram.isBlank()) {
+                    grams.add(gram);
+                }
+            }
+        }
+        return grams;
+    }
+
+    private record Document(String name, Set<String> grams, Long version) {
+    }
+
+    private record Match(long id, double score) {
+    }
+}
@@ -0,0 +1,248 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.dto.ProductChangeBatch;
+import com.ecommerce.product.entity.Product;
+import com.ecommerce.product.entity.ProductChange;
+import com.ecommerce.product.event.ProductChangedEvent;
+import com.ecommerce.product.repository.ProductChangeRepository;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Append-only product change log (outbox) and the long-poll feed over it.
+// Every ProductChangedEvent is buffered on the publishing transaction and written
+// to product_changes just before it commits, so a change row exists exactly when
+// the product write does. Consumers resume from the last sequence id they saw.
+@Service
+public class ProductChangeFeed {
+
+    private static final String INSERT_CHANGE =
+            "INSERT INTO product_changes (product_id, change_type, price, available, stock, version, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private ProductChangeRepository changeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Value("${product.changes.max-limit:500}")
+    private int maxLimit;
+
+    @Value("${product.changes.max-wait-seconds:30}")
+    private long maxWaitSeconds;
+
+    @Value("${product.changes.gap-grace-ms:2000}")
+    private long gapGraceMillis;
+
+    @Value("${product.changes.retention-hours:168}")
+    private long retentionHours;
+
+    @Value("${product.changes.prune-batch:1000}")
+    private int pruneBatch;
+
+    private final Set<Waiter> waiters = ConcurrentHashMap.newKeySet();
+    private final ExecutorService notifier = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "product-change-feed");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean notifyPending = new AtomicBoolean();
+
+    // Runs synchronously in the publisher's transaction
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            writeChanges(List.of(event));
+            signalWaiters();
+            return;
+        }
+        PendingChanges pending = (PendingChanges) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingChanges();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        pending.events.add(event);
+    }
+
+    // ✅ Changes after the cursor; waits up to timeoutSeconds for the first one to commit
+    public DeferredResult<ProductChangeBatch> poll(long after, int limit, long timeoutSeconds) {
+        if (after < 0) {
+            throw new IllegalArgumentException("after must not be negative");
+        }
+        if (limit <= 0 || limit > maxLimit) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxLimit);
+        }
+        if (timeoutSeconds < 0 || timeoutSeconds > maxWaitSeconds) {
+            throw new IllegalArgumentException("timeoutSeconds must be between 0 and " + maxWaitSeconds);
+        }
+        ProductChangeBatch empty = new ProductChangeBatch(Collections.emptyList(), after);
+        DeferredResult<ProductChangeBatch> result = new DeferredResult<>(timeoutSeconds * 1000, empty);
+
+        ProductChangeBatch batch = read(after, limit);
+        if (!batch.getChanges().isEmpty() || timeoutSeconds == 0) {
+            result.setResult(batch);
+            return result;
+        }
+        Waiter waiter = new Waiter(after, limit, result);
+        result.onCompletion(() -> waiters.remove(waiter));
+        waiters.add(waiter);
+        // A change may have committed between the read and registering the waiter
+        signalWaiters();
+        return result;
+    }
+
+    // Picks up changes committed by other instances and rows held back by a sequence gap
+    @Scheduled(fixedDelayString = "${product.changes.poll-interval-ms:1000}")
+    public void pollForWaiters() {
+        if (!waiters.isEmpty()) {
+            signalWaiters();
+        }
+    }
+
+    // Drop change rows older than the retention window, a chunk per statement
+    @Scheduled(fixedDelayString = "${product.changes.prune-interval-ms:600000}")
+    public void pruneChanges() {
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(retentionHours);
+        int deleted;
+        long total = 0;
+        do {
+            deleted = jdbcTemplate.update("DELETE FROM product_changes WHERE created_at < ? LIMIT ?",
+                    Timestamp.valueOf(cutoff), pruneBatch);
+            total += deleted;
+        } while (deleted == pruneBatch);
+        if (total > 0) {
+            System.out.println("✅ Pruned " + total + " product changes older than " + cutoff);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        notifier.shutdownNow();
+    }
+
+    // Helper: Read committed changes after the cursor. Ids are assigned at insert but
+    // become visible at commit, so a young gap may still be filled by a slower
+    // transaction; stop before it rather than let the cursor skip past it.
+    private ProductChangeBatch read(long after, int limit) {
+        List<ProductChange> rows = changeRepository.findByIdGreaterThanOrderById(after, Limit.of(limit));
+        LocalDateTime graceStart = LocalDateTime.now().minusNanos(gapGraceMillis * 1_000_000);
+        List<ProductChange> changes = new ArrayList<>(rows.size());
+        long cursor = after;
+        for (ProductChange change : rows) {
+            if (change.getId() != cursor + 1 && change.getCreatedAt().isAfter(graceStart)) {
+                break;
+            }
+            changes.add(change);
+            cursor = change.getId();
+        }
+        return new ProductChangeBatch(changes, cursor);
+    }
+
+    // Coalesces bursts of commits into one pass over the waiters
+    private void signalWaiters() {
+        if (waiters.isEmpty() || !notifyPending.compareAndSet(false, true)) {
+            return;
+        }
+        notifier.execute(() -> {
+            notifyPending.set(false);
+            try {
+                completeWaiters();
+            } catch (Exception e) {
+                System.err.println("❌ Failed to notify product change waiters: " + e.getMessage());
+            }
+        });
+    }
+
+    // Helper: One read from the oldest waiting cursor serves every waiter
+    private void completeWaiters() {
+        List<Waiter> snapshot = new ArrayList<>(waiters);
+        if (snapshot.isEmpty()) {
+            return;
+        }
+        long oldest = snapshot.stream().mapToLong(Waiter::after).min().getAsLong();
+        ProductChangeBatch window = read(oldest, maxLimit);
+        boolean truncated = window.getChanges().size() == maxLimit;
+        for (Waiter waiter : snapshot) {
+            List<ProductChange> changes = new ArrayList<>();
+            for (ProductChange change : window.getChanges()) {
+                if (changes.size() == waiter.limit()) {
+                    break;
+                }
+                if (change.getId() > waiter.after()) {
+                    changes.add(change);
+                }
+            }
+            ProductChangeBatch batch = changes.isEmpty()
+                    ? (truncated ? read(waiter.after(), waiter.limit()) : null)
+                    : new ProductChangeBatch(changes, changes.get(changes.size() - 1).getId());
+            if (batch != null && !batch.getChanges().isEmpty()) {
+                waiter.result().setResult(batch);
+            }
+        }
+    }
+
+    private void writeChanges(List<ProductChangedEvent> events) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(events.size());
+        for (ProductChangedEvent event : events) {
+            Product product = event.getProduct();
+            rows.add(new Object[] {
+                    event.getProductId(),
+                    event.getType().name(),
+                    product == null ? null : product.getPrice(),
+                    product == null ? null : product.getAvailable(),
+                    product == null ? null : product.getStock(),
+                    product == null ? null : product.getVersion(),
+                    now
+            });
+        }
+        jdbcTemplate.batchUpdate(INSERT_CHANGE, rows);
+    }
+
+    private final class PendingChanges implements TransactionSynchronization {
+        private final List<ProductChangedEvent> events = new ArrayList<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            // Flush first so versions bumped by this transaction are recorded
+            entityManager.flush();
+            writeChanges(events);
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(ProductChangeFeed.this);
+            if (status == STATUS_COMMITTED) {
+                signalWaiters();
+            }
+        }
+    }
+
+    private record Waiter(long after, int limit, DeferredResult<ProductChangeBatch> result) {
+    }
+}
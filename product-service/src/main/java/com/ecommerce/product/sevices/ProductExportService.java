@@ -0,0 +1,81 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.entity.Product;
+import com.ecommerce.product.repository.ProductRepository;
+import com.ecommerce.product.util.ProductCsv;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+public class ProductExportService {
+
+    public enum Format { NDJSON, CSV }
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${product.export.chunk-size:500}")
+    private int chunkSize;
+
+    // ✅ Stream the catalog (or products changed since a point in time) in keyset chunks.
+    // Only one chunk is held in memory; each chunk is flushed to the client before the next read.
+    public void export(Format format, LocalDateTime since, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        ObjectWriter jsonWriter = objectMapper.writerFor(Product.class);
+
+        if (format == Format.CSV) {
+            writer.write(ProductCsv.HEADER);
+            writer.write('\n');
+        }
+
+        LocalDateTime afterUpdatedAt = since;
+        long afterId = 0L;
+        while (true) {
+            List<Product> chunk = since != null
+                    ? productRepository.findPageOrderByUpdatedAt(afterUpdatedAt, afterId, Limit.of(chunkSize))
+                    : productRepository.findPageOrderById(null, false, afterId, Limit.of(chunkSize));
+            if (chunk.isEmpty()) {
+                break;
+            }
+            for (Product product : chunk) {
+                if (format == Format.CSV) {
+                    writer.write(ProductCsv.toRow(product));
+                } else {
+                    writer.write(jsonWriter.writeValueAsString(product));
+                }
+                writer.write('\n');
+            }
+            writer.flush();
+
+            Product last = chunk.get(chunk.size() - 1);
+            afterId = last.getId();
+            afterUpdatedAt = last.getUpdatedAt();
+            // Drop the chunk from the persistence context if one is bound to this thread
+            entityManager.clear();
+            if (chunk.size() < chunkSize) {
+                break;
+            }
+        }
+        writer.flush();
+    }
+}
@@ -0,0 +1,335 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.dto.ProductImportReport;
+import com.ecommerce.product.entity.Product;
+import com.ecommerce.product.enums.ProductChangeType;
+import com.ecommerce.product.event.ProductChangedEvent;
+import com.ecommerce.product.repository.ProductRepository;
+import com.ecommerce.product.util.ProductCsv;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+public class ProductImportService {
+
+    public enum Format { NDJSON, CSV }
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${product.import.batch-size:500}")
+    private int batchSize;
+
+    @Value("${product.import.max-reported-errors:100}")
+    private int maxReportedErrors;
+
+    // Fields an update row may overwrite; only those the row actually supplies are copied
+    private static final List<String> UPDATABLE_FIELDS =
+            List.of("name", "description", "price", "category", "usage", "stock", "available");
+
+    // ✅ Stream an upload and upsert it in batches: rows with an id update that product,
+    // rows without one are inserted. Each batch is one transaction and one JDBC batch.
+    // Update rows only overwrite the fields they supply: a column missing from the CSV
+    // header, an empty cell, or an NDJSON key that is absent or null keeps the stored value.
+    public ProductImportReport importProducts(Format format, InputStream in) throws IOException {
+        long started = System.nanoTime();
+        ProductImportReport report = new ProductImportReport();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+
+        Map<String, Integer> csvColumns = null;
+        if (format == Format.CSV) {
+            String header = readRecord(reader, format);
+            if (header == null) {
+                return finish(report, started);
+            }
+            csvColumns = parseHeader(header);
+        }
+
+        List<ImportRow> batch = new ArrayList<>(batchSize);
+        long rowNumber = 0;
+        String record;
+        while ((record = readRecord(reader, format)) != null) {
+            if (record.isBlank()) {
+                continue;
+            }
+            rowNumber++;
+            report.setRowsRead(rowNumber);
+            try {
+                Set<String> supplied = new HashSet<>();
+                Product product = format == Format.CSV
+                        ? parseCsvRow(record, csvColumns, supplied)
+                        : parseJsonRow(record, supplied);
+                validate(product);
+                batch.add(new ImportRow(rowNumber, product, product.getId() == null, supplied));
+            } catch (Exception e) {
+                recordError(report, rowNumber, e.getMessage());
+            }
+            if (batch.size() >= batchSize) {
+                writeBatch(batch, report);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeBatch(batch, report);
+        }
+        return finish(report, started);
+    }
+
+    // Helper: Write one batch; if it fails as a whole, retry its rows one by one to isolate bad rows
+    private void writeBatch(List<ImportRow> batch, ProductImportReport report) {
+        try {
+            apply(report, transactionTemplate.execute(status -> upsert(batch)));
+        } catch (RuntimeException batchError) {
+            for (ImportRow row : batch) {
+                if (row.insert()) {
+                    // persist() assigned an id before the rollback
+                    row.product().setId(null);
+                }
+                try {
+                    apply(report, transactionTemplate.execute(status -> upsert(List.of(row))));
+                } catch (RuntimeException rowError) {
+                    recordError(report, row.number(), rootMessage(rowError));
+                }
+            }
+        }
+    }
+
+    // Must run inside a transaction
+    private BatchResult upsert(List<ImportRow> rows) {
+        List<Long> ids = new ArrayList<>();
+        for (ImportRow row : rows) {
+            if (row.product().getId() != null) {
+                ids.add(row.product().getId());
+            }
+        }
+        Map<Long, Product> existing = new HashMap<>();
+        if (!ids.isEmpty()) {
+            for (Product product : productRepository.findAllById(ids)) {
+                existing.put(product.getId(), product);
+            }
+        }
+
+        List<Product> updatedProducts = new ArrayList<>(rows.size());
+        List<Product> inserts = new ArrayList<>();
+        List<ProductImportReport.RowError> errors = new ArrayList<>();
+        int updated = 0;
+        for (ImportRow row : rows) {
+            Product incoming = row.product();
+            if (incoming.getId() == null) {
+                inserts.add(incoming);
+                continue;
+            }
+            Product current = existing.get(incoming.getId());
+            if (current == null) {
+                errors.add(new ProductImportReport.RowError(row.number(), "No product with id " + incoming.getId()));
+                continue;
+            }
+            copySuppliedFields(incoming, current, row.supplied());
+            updatedProducts.add(current);
+            updated++;
+        }
+        List<Product> insertedProducts = productRepository.saveAll(inserts);
+
+        // Send the batched INSERT/UPDATE statements now and drop the batch from the context
+        entityManager.flush();
+        for (Product product : insertedProducts) {
+            eventPublisher.publishEvent(new ProductChangedEvent(product.getId(), ProductChangeType.CREATED, product));
+        }
+        for (Product product : updatedProducts) {
+            eventPublisher.publishEvent(new ProductChangedEvent(product.getId(), ProductChangeType.UPDATED, product));
+        }
+        entityManager.clear();
+        return new BatchResult(inserts.size(), updated, errors);
+    }
+
+    // Helper: Copy only the fields the import row supplied onto the stored product
+    private void copySuppliedFields(Product incoming, Product current, Set<String> supplied) {
+        if (supplied.contains("name")) {
+            current.setName(incoming.getName());
+        }
+        if (supplied.contains("description")) {
+            current.setDescription(incoming.getDescription());
+        }
+        if (supplied.contains("price")) {
+            current.setPrice(incoming.getPrice());
+        }
+        if (supplied.contains("category")) {
+            current.setCategory(incoming.getCategory());
+        }
+        if (supplied.contains("usage")) {
+            current.setUsage(incoming.getUsage());
+        }
+        if (supplied.contains("stock")) {
+            current.setStock(incoming.getStock());
+        }
+        if (supplied.contains("available")) {
+            current.setAvailable(incoming.getAvailable());
+        }
+    }
+
+    // Helper: Read one record; CSV records may span lines inside quoted fields
+    private String readRecord(BufferedReader reader, Format format) throws IOException {
+        String line = reader.readLine();
+        if (line == null || format != Format.CSV) {
+            return line;
+        }
+        StringBuilder record = new StringBuilder(line);
+        while (countQuotes(record) % 2 != 0) {
+            String next = reader.readLine();
+            if (next == null) {
+                break;
+            }
+            record.append('\n').append(next);
+        }
+        return record.toString();
+    }
+
+    private Map<String, Integer> parseHeader(String header) {
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = ProductCsv.parseRow(header);
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("name") || !columns.containsKey("price")) {
+            throw new IllegalArgumentException("CSV header must contain at least name and price columns");
+        }
+        return columns;
+    }
+
+    private Product parseJsonRow(String record, Set<String> supplied) throws IOException {
+        JsonNode node = objectMapper.readTree(record);
+        if (!node.isObject()) {
+            throw new IllegalArgumentException("Each NDJSON line must be a JSON object");
+        }
+        for (String field : UPDATABLE_FIELDS) {
+            if (node.hasNonNull(field)) {
+                supplied.add(field);
+            }
+        }
+        return objectMapper.treeToValue(node, Product.class);
+    }
+
+    private Product parseCsvRow(String record, Map<String, Integer> columns, Set<String> supplied) {
+        List<String> fields = ProductCsv.parseRow(record);
+        for (String field : UPDATABLE_FIELDS) {
+            if (field(fields, columns, field) != null) {
+                supplied.add(field);
+            }
+        }
+        Product product = new Product();
+        String id = field(fields, columns, "id");
+        product.setId(id == null ? null : Long.parseLong(id));
+        product.setName(field(fields, columns, "name"));
+        product.setDescription(field(fields, columns, "description"));
+        String price = field(fields, columns, "price");
+        if (price == null) {
+            throw new IllegalArgumentException("price is required");
+        }
+        product.setPrice(Double.parseDouble(price));
+        product.setCategory(field(fields, columns, "category"));
+        product.setUsage(field(fields, columns, "usage"));
+        String stock = field(fields, columns, "stock");
+        product.setStock(stock == null ? null : Integer.parseInt(stock));
+        String available = field(fields, columns, "available");
+        product.setAvailable(available == null ? null : Boolean.parseBoolean(available));
+        return product;
+    }
+
+    private String field(List<String> fields, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private void validate(Product product) {
+        if (product.getName() == null || product.getName().isBlank()) {
+            throw new IllegalArgumentException("name is required");
+        }
+        if (Double.isNaN(product.getPrice()) || Double.isInfinite(product.getPrice()) || product.getPrice() < 0) {
+            throw new IllegalArgumentException("price must be a non-negative number");
+        }
+        if (product.getStock() != null && product.getStock() < 0) {
+            throw new IllegalArgumentException("stock must not be negative");
+        }
+    }
+
+    private void apply(ProductImportReport report, BatchResult result) {
+        report.setInserted(report.getInserted() + result.inserted());
+        report.setUpdated(report.getUpdated() + result.updated());
+        for (ProductImportReport.RowError error : result.errors()) {
+            recordError(report, error.getRow(), error.getMessage());
+        }
+    }
+
+    private void recordError(ProductImportReport report, long row, String message) {
+        report.setFailed(report.getFailed() + 1);
+        if (report.getErrors().size() < maxReportedErrors) {
+            report.getErrors().add(new ProductImportReport.RowError(row, message));
+        }
+    }
+
+    private ProductImportReport finish(ProductImportReport report, long started) {
+        long elapsedNanos = System.nanoTime() - started;
+        report.setElapsedMillis(elapsedNanos / 1_000_000);
+        report.setRowsPerSecond(elapsedNanos == 0 ? 0.0 : report.getRowsRead() * 1_000_000_000.0 / elapsedNanos);
+        return report;
+    }
+
+    private static int countQuotes(CharSequence text) {
+        int quotes = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '"') {
+                quotes++;
+            }
+        }
+        return quotes;
+    }
+
+    private static String rootMessage(Throwable error) {
+        Throwable root = error;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root.getMessage();
+    }
+
+    private record ImportRow(long number, Product product, boolean insert, Set<String> supplied) {
+    }
+
+    private record BatchResult(int inserted, int updated, List<ProductImportReport.RowError> errors) {
+    }
+}
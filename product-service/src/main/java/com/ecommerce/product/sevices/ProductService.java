@@ -1,12 +1,36 @@
 package com.ecommerce.product.service;
 
+import com.ecommerce.product.cache.ProductCache;
+import com.ecommerce.product.dto.CacheStats;
+import com.ecommerce.product.dto.CategoryFacet;
+import com.ecommerce.product.dto.ProductBatchResponse;
+import com.ecommerce.product.dto.ProductListVersion;
+import com.ecommerce.product.dto.ProductPage;
+import com.ecommerce.product.dto.ProductSummary;
+import com.ecommerce.product.dto.ProductVersion;
 import com.ecommerce.product.entity.Product;
+import com.ecommerce.product.enums.ProductChangeType;
+import com.ecommerce.product.event.ProductChangedEvent;
+import com.ecommerce.product.facet.CategoryFacetIndex;
 import com.ecommerce.product.repository.ProductRepository;
+import com.ecommerce.product.search.ProductBrowseIndex;
+import com.ecommerce.product.search.ProductSearchIndex;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
 
 @Service
 public class ProductService {
@@ -14,6 +38,30 @@ public class ProductService {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ProductBrowseIndex productBrowseIndex;
+
+    @Autowired
+    private CategoryFacetIndex categoryFacetIndex;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${product.batch.max-ids:500}")
+    private int maxBatchIds;
+
+    @Value("${product.page.max-limit:200}")
+    private int maxPageLimit;
+
+    @Value("${product.search.max-limit:100}")
+    private int maxSearchLimit;
+
     // ✅ Get all products
     public List<Product> getAllProducts() {
         return productRepository.findAll();
@@ -21,15 +69,86 @@ public class ProductService {
 
     // ✅ Get product by ID
     public Optional<Product> getProductById(Long id) {
-        return productRepository.findById(id);
+        Optional<Product> cached = productCache.get(id);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        long generation = productCache.generation();
+        Optional<Product> product = productRepository.findById(id);
+        product.ifPresent(p -> productCache.putIfCurrent(p, generation));
+        return product;
+    }
+
+    // ✅ Version of a product for conditional GETs, from the cache or a version-only query
+    public Optional<ProductVersion> getProductVersion(Long id) {
+        Optional<Product> cached = productCache.get(id);
+        if (cached.isPresent()) {
+            Product product = cached.get();
+            return Optional.of(new ProductVersion(product.getId(), product.getVersion(), product.getUpdatedAt()));
+        }
+        return productRepository.findVersionById(id);
+    }
+
+    // ✅ Fingerprint of a listing (all / category / available) for conditional GETs
+    public ProductListVersion getListVersion(String category, boolean availableOnly) {
+        return ProductListVersion.ofVersions(productRepository.findListVersions(category, availableOnly));
+    }
+
+    // ✅ Get several products by ID with a single query for the cache misses
+    public ProductBatchResponse getProductsByIds(List<Long> ids) {
+        Set<Long> requestedIds = new LinkedHashSet<>();
+        for (Long id : ids) {
+            if (id != null) {
+                requestedIds.add(id);
+            }
+        }
+        if (requestedIds.size() > maxBatchIds) {
+            throw new IllegalArgumentException("At most " + maxBatchIds + " product IDs can be requested at once");
+        }
+
+        Map<Long, Product> found = new LinkedHashMap<>();
+        List<Long> idsToLoad = new ArrayList<>();
+        for (Long id : requestedIds) {
+            Optional<Product> cached = productCache.get(id);
+            if (cached.isPresent()) {
+                found.put(id, cached.get());
+            } else {
+                idsToLoad.add(id);
+            }
+        }
+
+        if (!idsToLoad.isEmpty()) {
+            long generation = productCache.generation();
+            for (Product product : productRepository.findAllById(idsToLoad)) {
+                found.put(product.getId(), product);
+                productCache.putIfCurrent(product, generation);
+            }
+        }
+
+        // Keep the caller's ordering and report unknown IDs explicitly
+        Map<Long, Product> products = new LinkedHashMap<>();
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : requestedIds) {
+            Product product = found.get(id);
+            if (product != null) {
+                products.put(id, product);
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return new ProductBatchResponse(products, missingIds);
     }
 
     // ✅ Add new product
+    @Transactional
     public Product addProduct(Product product) {
-        return productRepository.save(product);
+        Product savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(savedProduct.getId(), ProductChangeType.CREATED, savedProduct));
+        return savedProduct;
     }
 
     // ✅ Update existing product
+    @Transactional
     public Product updateProduct(Long id, Product updatedProduct) {
         Optional<Product> existingProductOpt = productRepository.findById(id);
 
@@ -42,23 +161,177 @@ public class ProductService {
             existingProduct.setDescription(updatedProduct.getDescription());
             existingProduct.setUsage(updatedProduct.getUsage());
 
-            return productRepository.save(existingProduct);
+            Product savedProduct = productRepository.save(existingProduct);
+            eventPublisher.publishEvent(new ProductChangedEvent(savedProduct.getId(), ProductChangeType.UPDATED, savedProduct));
+            return savedProduct;
         } else {
             return null; // or throw custom exception later
         }
     }
 
     // ✅ Delete product by ID
+    @Transactional
     public void deleteProduct(Long id) {
-        productRepository.deleteById(id);
+        Optional<Product> product = productRepository.findById(id);
+        if (product.isPresent()) {
+            productRepository.delete(product.get());
+            eventPublisher.publishEvent(new ProductChangedEvent(id, ProductChangeType.DELETED, null));
+        }
     }
     public List<Product> getProductsByCategory(String category) {
         return productRepository.findByCategory(category);
     }
-    public List<Product> searchProductsByName(String name) {
-        return productRepository.findByNameContainingIgnoreCase(name);
+    // ✅ Ranked name search served by the in-memory trigram index
+    public List<Product> searchProductsByName(String name, int limit) {
+        if (limit < 1 || limit > maxSearchLimit) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxSearchLimit);
+        }
+        if (!productSearchIndex.isReady()) {
+            // Index still building right after startup
+            List<Product> products = productRepository.findByNameContainingIgnoreCase(name);
+            return products.size() > limit ? products.subList(0, limit) : products;
+        }
+        List<Long> rankedIds = productSearchIndex.search(name, limit);
+        if (rankedIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(getProductsByIds(rankedIds).getProducts().values());
     }
     public List<Product> getAvailableProducts() {
         return productRepository.findByAvailableTrue();
     }
+
+    // ✅ Keyset page of full products, optionally filtered by category / availability
+    public ProductPage<Product> getProductPage(String category, boolean availableOnly,
+                                               String sort, String cursor, int limit) {
+        validateLimit(limit);
+        Limit fetch = Limit.of(limit + 1);
+        List<Product> rows;
+        if (isPriceSort(sort)) {
+            PriceCursor after = parsePriceCursor(cursor);
+            rows = productRepository.findPageOrderByPrice(category, availableOnly, after.price(), after.id(), fetch);
+            return toPage(rows, limit, Product::getId, Product::getPrice, true);
+        }
+        rows = productRepository.findPageOrderById(category, availableOnly, parseIdCursor(cursor), fetch);
+        return toPage(rows, limit, Product::getId, Product::getPrice, false);
+    }
+
+    // ✅ Keyset page of lightweight product summaries (id, name, price, available)
+    public ProductPage<ProductSummary> getProductSummaryPage(String category, boolean availableOnly,
+                                                             String sort, String cursor, int limit) {
+        validateLimit(limit);
+        Limit fetch = Limit.of(limit + 1);
+        List<ProductSummary> rows;
+        if (isPriceSort(sort)) {
+            PriceCursor after = parsePriceCursor(cursor);
+            rows = productRepository.findSummaryPageOrderByPrice(category, availableOnly, after.price(), after.id(), fetch);
+            return toPage(rows, limit, ProductSummary::getId, ProductSummary::getPrice, true);
+        }
+        rows = productRepository.findSummaryPageOrderById(category, availableOnly, parseIdCursor(cursor), fetch);
+        return toPage(rows, limit, ProductSummary::getId, ProductSummary::getPrice, false);
+    }
+
+    // ✅ Browse a category by price range from the in-memory index, cheapest or dearest first
+    public ProductPage<ProductSummary> browseProducts(String category, Double minPrice, Double maxPrice,
+                                                      boolean availableOnly, String sort, String cursor, int limit) {
+        validateLimit(limit);
+        boolean descending;
+        if (sort == null || sort.equalsIgnoreCase("price")) {
+            descending = false;
+        } else if (sort.equalsIgnoreCase("price_desc")) {
+            descending = true;
+        } else {
+            throw new IllegalArgumentException("sort must be 'price' or 'price_desc'");
+        }
+        if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+            throw new IllegalArgumentException("minPrice must not be greater than maxPrice");
+        }
+        if (!productBrowseIndex.isReady()) {
+            throw new IllegalStateException("Browse index is still loading");
+        }
+        PriceCursor after = cursor == null || cursor.isBlank() ? null : parsePriceCursor(cursor);
+        List<ProductSummary> rows = productBrowseIndex.browse(category,
+                minPrice == null ? -Double.MAX_VALUE : minPrice,
+                maxPrice == null ? Double.MAX_VALUE : maxPrice,
+                availableOnly, descending,
+                after == null ? null : after.price(), after == null ? 0L : after.id(),
+                limit + 1);
+        return toPage(rows, limit, ProductSummary::getId, ProductSummary::getPrice, true);
+    }
+
+    // ✅ Per-category counts and price ranges, kept up to date on product writes
+    public List<CategoryFacet> getCategoryFacets() {
+        if (!categoryFacetIndex.isReady()) {
+            // Index still building right after startup
+            return productRepository.findCategoryFacets();
+        }
+        return categoryFacetIndex.getFacets();
+    }
+
+    // ✅ Product cache statistics
+    public CacheStats getCacheStats() {
+        return productCache.getStats();
+    }
+
+    // Helper: Validate requested page size
+    private void validateLimit(int limit) {
+        if (limit < 1 || limit > maxPageLimit) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxPageLimit);
+        }
+    }
+
+    private boolean isPriceSort(String sort) {
+        if (sort == null || sort.equalsIgnoreCase("id")) {
+            return false;
+        }
+        if (sort.equalsIgnoreCase("price")) {
+            return true;
+        }
+        throw new IllegalArgumentException("sort must be 'id' or 'price'");
+    }
+
+    // Helper: Cursor of an id-ordered page is the last id returned
+    private long parseIdCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    // Helper: Cursor of a price-ordered page is "<price>_<id>" of the last row returned
+    private PriceCursor parsePriceCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return new PriceCursor(-Double.MAX_VALUE, 0L);
+        }
+        int separator = cursor.lastIndexOf('_');
+        try {
+            double price = Double.parseDouble(cursor.substring(0, separator));
+            long id = Long.parseLong(cursor.substring(separator + 1));
+            return new PriceCursor(price, id);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    // Helper: Trim the look-ahead row and derive the next cursor
+    private <T> ProductPage<T> toPage(List<T> rows, int limit, ToLongFunction<T> idOf,
+                                      ToDoubleFunction<T> priceOf, boolean priceSort) {
+        boolean hasMore = rows.size() > limit;
+        List<T> items = hasMore ? new ArrayList<>(rows.subList(0, limit)) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            T last = items.get(items.size() - 1);
+            nextCursor = priceSort
+                    ? priceOf.applyAsDouble(last) + "_" + idOf.applyAsLong(last)
+                    : String.valueOf(idOf.applyAsLong(last));
+        }
+        return new ProductPage<>(items, nextCursor, hasMore);
+    }
+
+    private record PriceCursor(double price, long id) {
+    }
 }
@@ -0,0 +1,291 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.entity.Product;
+import com.ecommerce.product.entity.StockReservation;
+import com.ecommerce.product.enums.ProductChangeType;
+import com.ecommerce.product.enums.ReservationStatus;
+import com.ecommerce.product.event.ProductChangedEvent;
+import com.ecommerce.product.exception.StockReservationException;
+import com.ecommerce.product.repository.ProductRepository;
+import com.ecommerce.product.repository.StockReservationRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Reserve / confirm / release stock with TTL holds.
+// Reservations for the same product are combined: callers enqueue their request
+// and whichever thread gets the product's lock drains the queue, takes the total
+// quantity with one conditional UPDATE and inserts all holds in one transaction.
+// A hot SKU therefore costs one row-lock acquisition per batch, not per request,
+// and waiting happens on an in-JVM lock instead of in InnoDB's lock queue.
+@Service
+public class StockReservationService {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockReservationRepository reservationRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${product.reservation.default-ttl-seconds:600}")
+    private long defaultTtlSeconds;
+
+    @Value("${product.reservation.max-ttl-seconds:3600}")
+    private long maxTtlSeconds;
+
+    @Value("${product.reservation.max-batch:100}")
+    private int maxBatch;
+
+    @Value("${product.reservation.sold-out-cache-ms:500}")
+    private long soldOutCacheMillis;
+
+    @Value("${product.reservation.sweep-batch:100}")
+    private int sweepBatch;
+
+    private final ConcurrentHashMap<Long, ReservationQueue> queues = new ConcurrentHashMap<>();
+
+    // Products recently seen with zero stock, rejected without a DB round trip until the deadline
+    private final ConcurrentHashMap<Long, Long> soldOutUntil = new ConcurrentHashMap<>();
+
+    // ✅ Hold stock for a product until the reservation is confirmed, released or expires
+    public StockReservation reserve(Long productId, Integer quantity, Long ttlSeconds) {
+        if (quantity == null || quantity <= 0) {
+            throw new StockReservationException(HttpStatus.BAD_REQUEST, "Quantity must be greater than 0");
+        }
+        long ttl = ttlSeconds == null ? defaultTtlSeconds : ttlSeconds;
+        if (ttl <= 0 || ttl > maxTtlSeconds) {
+            throw new StockReservationException(HttpStatus.BAD_REQUEST,
+                    "ttlSeconds must be between 1 and " + maxTtlSeconds);
+        }
+        Long soldOutDeadline = soldOutUntil.get(productId);
+        if (soldOutDeadline != null && System.nanoTime() - soldOutDeadline < 0) {
+            throw insufficientStock(productId);
+        }
+
+        PendingReservation pending = new PendingReservation(quantity, ttl);
+        ReservationQueue queue = queues.computeIfAbsent(productId, id -> new ReservationQueue());
+        queue.pending.add(pending);
+
+        // Whoever holds the lock drains the queue, possibly completing our request too;
+        // only callers whose request is still pending compete for the lock
+        while (!pending.result.isDone()) {
+            if (queue.lock.tryLock()) {
+                try {
+                    if (!pending.result.isDone()) {
+                        drain(productId, queue);
+                    }
+                } finally {
+                    queue.lock.unlock();
+                }
+            } else {
+                awaitBriefly(pending.result);
+            }
+        }
+
+        try {
+            return pending.result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    // ✅ Turn a hold into a sale; the stock was already taken when it was reserved
+    public StockReservation confirm(Long reservationId) {
+        return transactionTemplate.execute(status -> {
+            StockReservation reservation = findReservation(reservationId);
+            if (reservation.getStatus() == ReservationStatus.HELD
+                    && reservation.getExpiresAt().isBefore(LocalDateTime.now())) {
+                throw new StockReservationException(HttpStatus.CONFLICT, "Reservation " + reservationId + " has expired");
+            }
+            transition(reservation, ReservationStatus.CONFIRMED);
+            return findReservation(reservationId);
+        });
+    }
+
+    // ✅ Give held stock back
+    public StockReservation release(Long reservationId) {
+        return transactionTemplate.execute(status -> {
+            StockReservation reservation = findReservation(reservationId);
+            transition(reservation, ReservationStatus.RELEASED);
+            restoreStock(reservation);
+            return findReservation(reservationId);
+        });
+    }
+
+    public StockReservation getReservation(Long reservationId) {
+        return findReservation(reservationId);
+    }
+
+    // Return the stock of holds whose TTL ran out
+    @Scheduled(fixedDelayString = "${product.reservation.sweep-interval-ms:5000}")
+    public void expireReservations() {
+        List<StockReservation> expired = reservationRepository.findByStatusAndExpiresAtBeforeOrderByExpiresAt(
+                ReservationStatus.HELD, LocalDateTime.now(), Limit.of(sweepBatch));
+        for (StockReservation reservation : expired) {
+            transactionTemplate.executeWithoutResult(status -> {
+                int updated = reservationRepository.transition(reservation.getId(),
+                        ReservationStatus.HELD, ReservationStatus.EXPIRED, LocalDateTime.now());
+                if (updated == 1) {
+                    restoreStock(reservation);
+                }
+            });
+        }
+    }
+
+    // Must hold the queue's lock
+    private void drain(Long productId, ReservationQueue queue) {
+        List<PendingReservation> batch = new ArrayList<>();
+        PendingReservation next;
+        while (batch.size() < maxBatch && (next = queue.pending.poll()) != null) {
+            batch.add(next);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        int total = batch.stream().mapToInt(PendingReservation::quantity).sum();
+        try {
+            List<StockReservation> saved = transactionTemplate.execute(status -> takeStock(productId, total, batch));
+            if (saved != null) {
+                for (int i = 0; i < batch.size(); i++) {
+                    batch.get(i).result.complete(saved.get(i));
+                }
+                return;
+            }
+        } catch (RuntimeException e) {
+            batch.forEach(pending -> pending.result.completeExceptionally(e));
+            return;
+        }
+
+        // Not enough stock for the whole batch: fall back to first-come-first-served
+        for (PendingReservation pending : batch) {
+            try {
+                List<StockReservation> saved = transactionTemplate.execute(
+                        status -> takeStock(productId, pending.quantity(), List.of(pending)));
+                if (saved != null) {
+                    pending.result.complete(saved.get(0));
+                } else {
+                    pending.result.completeExceptionally(stockFailure(productId));
+                }
+            } catch (RuntimeException e) {
+                pending.result.completeExceptionally(e);
+            }
+        }
+    }
+
+    // Must run inside a transaction. Returns null when there is not enough stock.
+    private List<StockReservation> takeStock(Long productId, int quantity, List<PendingReservation> requests) {
+        LocalDateTime now = LocalDateTime.now();
+        if (productRepository.decrementStock(productId, quantity, now) == 0) {
+            return null;
+        }
+        List<StockReservation> reservations = new ArrayList<>(requests.size());
+        for (PendingReservation request : requests) {
+            StockReservation reservation = new StockReservation();
+            reservation.setProductId(productId);
+            reservation.setQuantity(request.quantity());
+            reservation.setStatus(ReservationStatus.HELD);
+            reservation.setExpiresAt(now.plusSeconds(request.ttlSeconds()));
+            reservations.add(reservation);
+        }
+        List<StockReservation> saved = reservationRepository.saveAll(reservations);
+        publishStockChange(productId);
+        return saved;
+    }
+
+    // Must run inside a transaction
+    private void restoreStock(StockReservation reservation) {
+        productRepository.incrementStock(reservation.getProductId(), reservation.getQuantity(), LocalDateTime.now());
+        soldOutUntil.remove(reservation.getProductId());
+        publishStockChange(reservation.getProductId());
+    }
+
+    private void publishStockChange(Long productId) {
+        productRepository.findById(productId)
+                .ifPresent(product -> eventPublisher.publishEvent(new ProductChangedEvent(productId, ProductChangeType.STOCK_CHANGED, product)));
+    }
+
+    // Helper: Work out why a conditional decrement failed (missing, disabled or short of
+    // stock) and remember sold-out products
+    private StockReservationException stockFailure(Long productId) {
+        Optional<Product> product = productRepository.findById(productId);
+        if (product.isEmpty()) {
+            return new StockReservationException(HttpStatus.NOT_FOUND, "Product not found with ID: " + productId);
+        }
+        Integer stock = product.get().getStock();
+        if (stock == null || stock <= 0) {
+            soldOutUntil.put(productId, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(soldOutCacheMillis));
+        } else if (!Boolean.TRUE.equals(product.get().getAvailable())) {
+            return new StockReservationException(HttpStatus.CONFLICT, "Product is not available: " + productId);
+        }
+        return insufficientStock(productId);
+    }
+
+    private StockReservationException insufficientStock(Long productId) {
+        return new StockReservationException(HttpStatus.CONFLICT, "Insufficient stock for product: " + productId);
+    }
+
+    private StockReservation findReservation(Long reservationId) {
+        return reservationRepository.findById(reservationId)
+                .orElseThrow(() -> new StockReservationException(HttpStatus.NOT_FOUND,
+                        "Reservation not found with ID: " + reservationId));
+    }
+
+    private void transition(StockReservation reservation, ReservationStatus to) {
+        int updated = reservationRepository.transition(reservation.getId(),
+                ReservationStatus.HELD, to, LocalDateTime.now());
+        if (updated == 0) {
+            throw new StockReservationException(HttpStatus.CONFLICT,
+                    "Reservation " + reservation.getId() + " is " + reservation.getStatus());
+        }
+    }
+
+    // Helper: Wait a moment for the lock holder to complete the request; the caller retries the lock after
+    private static void awaitBriefly(CompletableFuture<StockReservation> result) {
+        try {
+            result.get(1, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            // Still pending, or failed: the loop re-checks the result
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StockReservationException(HttpStatus.SERVICE_UNAVAILABLE, "Interrupted while reserving stock");
+        }
+    }
+
+    private static final class ReservationQueue {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final ConcurrentLinkedQueue<PendingReservation> pending = new ConcurrentLinkedQueue<>();
+    }
+
+    private record PendingReservation(int quantity, long ttlSeconds, CompletableFuture<StockReservation> result) {
+        private PendingReservation(int quantity, long ttlSeconds) {
+            this(quantity, ttlSeconds, new CompletableFuture<>());
+        }
+    }
+}
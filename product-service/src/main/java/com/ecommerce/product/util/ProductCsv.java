@@ -0,0 +1,75 @@
+package com.ecommerce.product.util;
+
+import com.ecommerce.product.entity.Product;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// CSV layout shared by the catalog export and import endpoints
+public final class ProductCsv {
+
+    public static final String HEADER = "id,name,description,price,category,usage,stock,available,updatedAt";
+
+    private ProductCsv() {
+    }
+
+    public static String toRow(Product product) {
+        return String.join(",",
+                value(product.getId()),
+                escape(product.getName()),
+                escape(product.getDescription()),
+                String.valueOf(product.getPrice()),
+                escape(product.getCategory()),
+                escape(product.getUsage()),
+                value(product.getStock()),
+                value(product.getAvailable()),
+                value(product.getUpdatedAt()));
+    }
+
+    // Splits one CSV record into fields, honouring double-quoted fields and "" escapes
+    public static List<String> parseRow(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private static String value(Object value) {
+        return value == null ? "" : value.toString();
+    }
+
+    private static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+                && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+}
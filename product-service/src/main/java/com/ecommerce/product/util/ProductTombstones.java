@@ -0,0 +1,39 @@
+package com.ecommerce.product.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Ids of recently deleted products, each kept for a fixed retention window.
+// A delete event carries no version, so the in-memory caches and indexes use this
+// to ignore an older create / update of the same product whose listener runs after
+// the delete's. Not thread-safe: callers hold their own lock.
+public final class ProductTombstones {
+
+    private final long retentionNanos;
+    // Insertion ordered, so the oldest deadline is always first
+    private final LinkedHashMap<Long, Long> deadlines = new LinkedHashMap<>();
+
+    public ProductTombstones(long retentionNanos) {
+        this.retentionNanos = retentionNanos;
+    }
+
+    public void add(Long id) {
+        long now = System.nanoTime();
+        prune(now);
+        deadlines.remove(id);
+        deadlines.put(id, now + retentionNanos);
+    }
+
+    public boolean contains(Long id) {
+        prune(System.nanoTime());
+        return deadlines.containsKey(id);
+    }
+
+    private void prune(long now) {
+        Iterator<Map.Entry<Long, Long>> oldest = deadlines.entrySet().iterator();
+        while (oldest.hasNext() && now - oldest.next().getValue() > 0) {
+            oldest.remove();
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.ecommerce.product.cache;
+
+import com.ecommerce.product.entity.Product;
+import com.ecommerce.product.enums.ProductChangeType;
+import com.ecommerce.product.event.ProductChangedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ProductCacheTest {
+
+    private final ProductCache cache = new ProductCache(100, 300);
+
+    @Test
+    void olderUpdateArrivingLateDoesNotReplaceANewerOne() {
+        cache.onProductChanged(updated(product(1L, "Newer", 3L)));
+        cache.onProductChanged(updated(product(1L, "Older", 2L)));
+
+        assertEquals("Newer", cache.get(1L).orElseThrow().getName());
+    }
+
+    @Test
+    void updateArrivingAfterTheDeleteDoesNotBringTheProductBack() {
+        cache.onProductChanged(updated(product(2L, "Kept", 1L)));
+        cache.onProductChanged(new ProductChangedEvent(2L, ProductChangeType.DELETED, null));
+        cache.onProductChanged(updated(product(2L, "Resurrected", 2L)));
+
+        Optional<Product> cached = cache.get(2L);
+        assertTrue(cached.isEmpty());
+    }
+
+    private static ProductChangedEvent updated(Product product) {
+        return new ProductChangedEvent(product.getId(), ProductChangeType.UPDATED, product);
+    }
+
+    private static Product product(Long id, String name, Long version) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setVersion(version);
+        return product;
+    }
+}
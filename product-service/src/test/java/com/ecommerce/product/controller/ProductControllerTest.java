@@ -0,0 +1,116 @@
+package com.ecommerce.product.controller;
+
+import com.ecommerce.product.entity.Product;
+import com.ecommerce.product.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ProductControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void listingRevalidatesWithTheEtagAndSendsNoLastModified() throws Exception {
+        String category = newCategory();
+        newProduct(category, true);
+        String listing = "/products/category/" + category;
+
+        String etag = mockMvc.perform(get(listing))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.LAST_MODIFIED))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get(listing).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+        String inTheFuture = ZonedDateTime.now().plusDays(1).format(DateTimeFormatter.RFC_1123_DATE_TIME);
+        mockMvc.perform(get(listing).header(HttpHeaders.IF_MODIFIED_SINCE, inTheFuture))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void deletingAProductChangesTheListingEtag() throws Exception {
+        String category = newCategory();
+        newProduct(category, true);
+        Long deleted = newProduct(category, true);
+        String listing = "/products/category/" + category;
+        String before = etag(listing);
+
+        productRepository.deleteById(deleted);
+
+        String after = mockMvc.perform(get(listing).header(HttpHeaders.IF_NONE_MATCH, before))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(before, after);
+    }
+
+    @Test
+    void oneProductLeavingAndAnotherEnteringChangesTheListingEtag() throws Exception {
+        // Count, max id and the sum of versions of the listing are all the same afterwards
+        String category = newCategory();
+        Long leaving = newProduct(category, true);
+        restock(leaving);
+        Long entering = newProduct(category, false);
+        newProduct(category, true);
+        String listing = "/products/available";
+        String before = etag(listing);
+
+        setAvailable(leaving, false);
+        setAvailable(entering, true);
+
+        mockMvc.perform(get(listing).header(HttpHeaders.IF_NONE_MATCH, before))
+                .andExpect(status().isOk());
+    }
+
+    private String etag(String listing) throws Exception {
+        return mockMvc.perform(get(listing))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private void setAvailable(Long productId, boolean available) {
+        Product product = productRepository.findById(productId).orElseThrow();
+        product.setAvailable(available);
+        productRepository.save(product);
+    }
+
+    private void restock(Long productId) {
+        Product product = productRepository.findById(productId).orElseThrow();
+        product.setStock(product.getStock() + 1);
+        productRepository.save(product);
+    }
+
+    private String newCategory() {
+        return "Listing-" + UUID.randomUUID();
+    }
+
+    private Long newProduct(String category, boolean available) {
+        Product product = new Product();
+        product.setName("Listed");
+        product.setPrice(3.0);
+        product.setCategory(category);
+        product.setStock(4);
+        product.setAvailable(available);
+        return productRepository.save(product).getId();
+    }
+}
@@ -0,0 +1,69 @@
+package com.ecommerce.product.facet;
+
+import com.ecommerce.product.dto.CategoryFacet;
+import com.ecommerce.product.entity.Product;
+import com.ecommerce.product.enums.ProductChangeType;
+import com.ecommerce.product.event.ProductChangedEvent;
+import com.ecommerce.product.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CategoryFacetIndexTest {
+
+    private CategoryFacetIndex index;
+
+    @BeforeEach
+    void setUp() {
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(productRepository.findCatalogRowsOrderById(anyLong(), any(Limit.class))).thenReturn(List.of());
+        index = new CategoryFacetIndex(600);
+        ReflectionTestUtils.setField(index, "productRepository", productRepository);
+        index.rebuild();
+    }
+
+    @Test
+    void olderEventAppliedAfterANewerOneIsIgnored() {
+        index.onProductChanged(updated(product(1L, "Garden", 20.0, 3L)));
+        index.onProductChanged(updated(product(1L, "Kitchen", 10.0, 2L)));
+
+        List<CategoryFacet> facets = index.getFacets();
+        assertEquals(1, facets.size());
+        assertEquals("Garden", facets.get(0).getCategory());
+        assertEquals(20.0, facets.get(0).getMaxPrice());
+    }
+
+    @Test
+    void eventAppliedAfterTheDeleteDoesNotBringTheProductBack() {
+        index.onProductChanged(updated(product(2L, "Garden", 5.0, 1L)));
+        index.onProductChanged(new ProductChangedEvent(2L, ProductChangeType.DELETED, null));
+        index.onProductChanged(updated(product(2L, "Garden", 6.0, 2L)));
+
+        assertTrue(index.getFacets().isEmpty());
+    }
+
+    private static ProductChangedEvent updated(Product product) {
+        return new ProductChangedEvent(product.getId(), ProductChangeType.UPDATED, product);
+    }
+
+    private static Product product(Long id, String category, double price, Long version) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Product " + id);
+        product.setCategory(category);
+        product.setPrice(price);
+        product.setAvailable(true);
+        product.setVersion(version);
+        return product;
+    }
+}
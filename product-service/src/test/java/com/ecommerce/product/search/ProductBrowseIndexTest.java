@@ -0,0 +1,131 @@
+package com.ecommerce.product.search;
+
+import com.ecommerce.product.dto.ProductCatalogRow;
+import com.ecommerce.product.dto.ProductSummary;
+import com.ecommerce.product.entity.Product;
+import com.ecommerce.product.enums.ProductChangeType;
+import com.ecommerce.product.event.ProductChangedEvent;
+import com.ecommerce.product.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductBrowseIndexTest {
+
+    private ProductBrowseIndex index;
+
+    @BeforeEach
+    void setUp() {
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(productRepository.findCatalogRowsOrderById(eq(0L), any(Limit.class))).thenReturn(List.of(
+                new ProductCatalogRow(1L, "Pen", "Office", 2.0, true, 0L),
+                new ProductCatalogRow(2L, "Stapler", "Office", 8.0, true, 0L),
+                new ProductCatalogRow(3L, "Desk", "Office", 120.0, true, 0L)));
+        when(productRepository.findCatalogRowsOrderById(eq(3L), any(Limit.class))).thenReturn(List.of());
+        index = new ProductBrowseIndex(600);
+        ReflectionTestUtils.setField(index, "productRepository", productRepository);
+        index.rebuild();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void writesThatLeaveTheBrowsedFieldsUnchangedKeepTheColumn() {
+        Object before = column("Office");
+
+        index.onProductChanged(new ProductChangedEvent(2L, ProductChangeType.STOCK_CHANGED,
+                product(2L, "Stapler", "Office", 8.0, true)));
+
+        assertSame(before, column("Office"));
+    }
+
+    @Test
+    void eventsOfOneTransactionAreAppliedTogetherAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        index.onProductChanged(new ProductChangedEvent(4L, ProductChangeType.CREATED, product(4L, "Lamp", "Office", 30.0, true)));
+        index.onProductChanged(new ProductChangedEvent(1L, ProductChangeType.UPDATED, product(1L, "Pen", "Office", 9.0, true)));
+        index.onProductChanged(new ProductChangedEvent(3L, ProductChangeType.DELETED, null));
+        index.onProductChanged(new ProductChangedEvent(5L, ProductChangeType.CREATED, product(5L, "Chair", "Office", 45.0, false)));
+        index.onProductChanged(new ProductChangedEvent(5L, ProductChangeType.STOCK_CHANGED, product(5L, "Chair", "Office", 45.0, true)));
+        assertEquals(List.of(1L, 2L, 3L), ids(false));
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        synchronizations.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        assertEquals(List.of(2L, 1L, 4L, 5L), ids(false));
+        assertEquals(List.of(5L, 4L, 1L, 2L), index.browse("Office", 0, Double.MAX_VALUE, true, true, null, 0L, 10)
+                .stream().map(ProductSummary::getId).toList());
+    }
+
+    @Test
+    void rolledBackEventsAreDropped() {
+        TransactionSynchronizationManager.initSynchronization();
+        index.onProductChanged(new ProductChangedEvent(3L, ProductChangeType.DELETED, null));
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertEquals(List.of(1L, 2L, 3L), ids(false));
+    }
+
+    @Test
+    void olderEventAppliedAfterANewerOneIsIgnored() {
+        index.onProductChanged(new ProductChangedEvent(1L, ProductChangeType.UPDATED, product(1L, "Pen", "Office", 50.0, true, 2L)));
+        index.onProductChanged(new ProductChangedEvent(1L, ProductChangeType.UPDATED, product(1L, "Pen", "Office", 1.0, true, 1L)));
+
+        assertEquals(List.of(2L, 1L, 3L), ids(false));
+    }
+
+    @Test
+    void eventAppliedAfterTheDeleteDoesNotBringTheProductBack() {
+        index.onProductChanged(new ProductChangedEvent(3L, ProductChangeType.DELETED, null));
+        index.onProductChanged(new ProductChangedEvent(3L, ProductChangeType.UPDATED, product(3L, "Desk", "Office", 99.0, true, 1L)));
+
+        assertEquals(List.of(1L, 2L), ids(false));
+    }
+
+    private List<Long> ids(boolean availableOnly) {
+        return index.browse("Office", 0, Double.MAX_VALUE, availableOnly, false, null, 0L, 10)
+                .stream().map(ProductSummary::getId).toList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object column(String category) {
+        return ((Map<String, Object>) ReflectionTestUtils.getField(index, "columns")).get(category);
+    }
+
+    private static Product product(Long id, String name, String category, double price, boolean available) {
+        return product(id, name, category, price, available, null);
+    }
+
+    private static Product product(Long id, String name, String category, double price, boolean available, Long version) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setCategory(category);
+        product.setPrice(price);
+        product.setAvailable(available);
+        product.setVersion(version);
+        return product;
+    }
+}
@@ -0,0 +1,119 @@
+package com.ecommerce.product.search;
+
+import com.ecommerce.product.dto.ProductCatalogRow;
+import com.ecommerce.product.entity.Product;
+import com.ecommerce.product.enums.ProductChangeType;
+import com.ecommerce.product.event.ProductChangedEvent;
+import com.ecommerce.product.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductSearchIndexTest {
+
+    private ProductRepository productRepository;
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        productRepository = mock(ProductRepository.class);
+        index = new ProductSearchIndex(600);
+        ReflectionTestUtils.setField(index, "productRepository", productRepository);
+        ReflectionTestUtils.setField(index, "minSimilarity", 0.5);
+    }
+
+    @Test
+    void writesCommittedDuringTheBuildWinOverTheRowsItRead() {
+        // The scan reads products 1 and 2, then 1 is renamed and 2 deleted before the chunk is applied
+        when(productRepository.findCatalogRowsOrderById(eq(0L), any(Limit.class)))
+                .thenAnswer(invocation -> {
+                    List<ProductCatalogRow> chunk = List.of(row(1L, "Old kettle"), row(2L, "Toaster"));
+                    index.onProductChanged(new ProductChangedEvent(1L, ProductChangeType.UPDATED, product(1L, "Teapot")));
+                    index.onProductChanged(new ProductChangedEvent(2L, ProductChangeType.DELETED, null));
+                    return chunk;
+                });
+        when(productRepository.findCatalogRowsOrderById(eq(2L), any(Limit.class)))
+                .thenReturn(List.of());
+
+        index.rebuild();
+
+        assertEquals(List.of(1L), index.search("teapot", 10));
+        assertTrue(index.search("kettle", 10).isEmpty());
+        assertTrue(index.search("toaster", 10).isEmpty());
+    }
+
+    @Test
+    void shortQueriesRankWordPrefixesAboveOtherSubstrings() {
+        buildEmpty();
+        index.index(1L, "Grape juice");
+        index.index(2L, "Apple");
+        index.index(3L, "Red apple");
+
+        assertEquals(List.of(2L, 3L, 1L), index.search("ap", 10));
+        assertEquals(List.of(2L, 3L), index.search("ap", 2));
+        assertEquals(List.of(1L), index.search("j", 10));
+    }
+
+    @Test
+    void shortQueriesStopMatchingAfterARename() {
+        buildEmpty();
+        index.index(1L, "Mug");
+        index.index(1L, "Cup");
+
+        assertTrue(index.search("mu", 10).isEmpty());
+        assertEquals(List.of(1L), index.search("cu", 10));
+    }
+
+    @Test
+    void olderRenameAppliedAfterANewerOneIsIgnored() {
+        buildEmpty();
+        index.onProductChanged(new ProductChangedEvent(1L, ProductChangeType.UPDATED, product(1L, "Teapot", 3L)));
+        index.onProductChanged(new ProductChangedEvent(1L, ProductChangeType.UPDATED, product(1L, "Kettle", 2L)));
+
+        assertEquals(List.of(1L), index.search("teapot", 10));
+        assertTrue(index.search("kettle", 10).isEmpty());
+    }
+
+    @Test
+    void renameAppliedAfterTheDeleteDoesNotBringTheProductBack() {
+        buildEmpty();
+        index.onProductChanged(new ProductChangedEvent(1L, ProductChangeType.CREATED, product(1L, "Teapot", 0L)));
+        index.onProductChanged(new ProductChangedEvent(1L, ProductChangeType.DELETED, null));
+        index.onProductChanged(new ProductChangedEvent(1L, ProductChangeType.UPDATED, product(1L, "Teapot", 1L)));
+
+        assertTrue(index.search("teapot", 10).isEmpty());
+    }
+
+    private void buildEmpty() {
+        when(productRepository.findCatalogRowsOrderById(anyLong(), any(Limit.class)))
+                .thenReturn(List.of());
+        index.rebuild();
+    }
+
+    private static ProductCatalogRow row(Long id, String name) {
+        return new ProductCatalogRow(id, name, "Kitchen", 1.0, true, 0L);
+    }
+
+    private static Product product(Long id, String name) {
+        return product(id, name, 1L);
+    }
+
+    private static Product product(Long id, String name, Long version) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName(name);
+        product.setVersion(version);
+        return product;
+    }
+}
@@ -0,0 +1,96 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.dto.ProductImportReport;
+import com.ecommerce.product.entity.Product;
+import com.ecommerce.product.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class ProductImportServiceTest {
+
+    @Autowired
+    private ProductImportService importService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void csvUpdateWithPartialHeaderKeepsTheOtherFields() throws IOException {
+        Long productId = newProduct();
+
+        ProductImportReport report = importProducts(ProductImportService.Format.CSV,
+                "id,name,price\n" + productId + ",Renamed,12.5\n");
+
+        assertEquals(1, report.getUpdated());
+        Product product = product(productId);
+        assertEquals("Renamed", product.getName());
+        assertEquals(12.5, product.getPrice());
+        assertUntouched(product);
+    }
+
+    @Test
+    void csvUpdateWithEmptyCellsKeepsTheStoredValues() throws IOException {
+        Long productId = newProduct();
+
+        ProductImportReport report = importProducts(ProductImportService.Format.CSV,
+                "id,name,description,price,category,usage,stock,available\n"
+                        + productId + ",Renamed,,12.5,,,,\n");
+
+        assertEquals(1, report.getUpdated());
+        assertEquals("Renamed", product(productId).getName());
+        assertUntouched(product(productId));
+    }
+
+    @Test
+    void ndjsonUpdateWithoutSomeKeysKeepsTheOtherFields() throws IOException {
+        Long productId = newProduct();
+
+        ProductImportReport report = importProducts(ProductImportService.Format.NDJSON,
+                "{\"id\":" + productId + ",\"name\":\"Renamed\",\"stock\":null}\n");
+
+        assertEquals(1, report.getUpdated());
+        Product product = product(productId);
+        assertEquals("Renamed", product.getName());
+        assertEquals(9.5, product.getPrice(), "absent price is not read as 0");
+        assertUntouched(product);
+    }
+
+    private void assertUntouched(Product product) {
+        assertEquals("Original description", product.getDescription());
+        assertEquals("Tools", product.getCategory());
+        assertEquals("Indoor", product.getUsage());
+        assertEquals(7, product.getStock());
+        assertTrue(product.getAvailable());
+    }
+
+    private ProductImportReport importProducts(ProductImportService.Format format, String body) throws IOException {
+        return importService.importProducts(format, new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private Product product(Long productId) {
+        return productRepository.findById(productId).orElseThrow();
+    }
+
+    private Long newProduct() {
+        Product product = new Product();
+        product.setName("Original");
+        product.setDescription("Original description");
+        product.setPrice(9.5);
+        product.setCategory("Tools");
+        product.setUsage("Indoor");
+        product.setStock(7);
+        product.setAvailable(true);
+        return productRepository.save(product).getId();
+    }
+}
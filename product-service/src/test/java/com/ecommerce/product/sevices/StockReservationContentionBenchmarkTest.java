@@ -0,0 +1,161 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.entity.Product;
+import com.ecommerce.product.entity.StockReservation;
+import com.ecommerce.product.enums.ProductChangeType;
+import com.ecommerce.product.enums.ReservationStatus;
+import com.ecommerce.product.event.ProductChangedEvent;
+import com.ecommerce.product.exception.StockReservationException;
+import com.ecommerce.product.repository.ProductRepository;
+import com.ecommerce.product.repository.StockReservationRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+// Many threads reserving one hot product until it sells out, through the combining
+// reservation engine and through one conditional UPDATE per request for comparison.
+// Prints throughput; asserts that neither path oversells. Runs with -Pbenchmarks.
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+class StockReservationContentionBenchmarkTest {
+
+    private static final int THREADS = 64;
+    private static final int STOCK = 2000;
+    private static final int ROUNDS = 2;
+
+    @Autowired
+    private StockReservationService reservationService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private StockReservationRepository reservationRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void hotProductContention() throws Exception {
+        // Warm up both paths before measuring
+        runUntilSoldOut(newHotProduct(), this::reserve);
+        runUntilSoldOut(newHotProduct(), this::decrementPerRequest);
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            Long combinedId = newHotProduct();
+            Result combined = runUntilSoldOut(combinedId, this::reserve);
+            assertSoldOutExactly(combinedId, combined);
+
+            Long naiveId = newHotProduct();
+            Result naive = runUntilSoldOut(naiveId, this::decrementPerRequest);
+            assertSoldOutExactly(naiveId, naive);
+
+            System.out.printf("Round %d, %d threads, %d units: combined %.0f reservations/s, per-request %.0f reservations/s%n",
+                    round, THREADS, STOCK, combined.perSecond(), naive.perSecond());
+        }
+    }
+
+    // Reserve one unit through the reservation engine; false once sold out
+    private boolean reserve(Long productId) {
+        try {
+            reservationService.reserve(productId, 1, null);
+            return true;
+        } catch (StockReservationException e) {
+            return false;
+        }
+    }
+
+    // Baseline doing the same work without combining: one transaction, one row lock,
+    // one hold insert and one change event per reservation
+    private boolean decrementPerRequest(Long productId) {
+        Boolean reserved = transactionTemplate.execute(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            if (productRepository.decrementStock(productId, 1, now) == 0) {
+                return false;
+            }
+            StockReservation reservation = new StockReservation();
+            reservation.setProductId(productId);
+            reservation.setQuantity(1);
+            reservation.setStatus(ReservationStatus.HELD);
+            reservation.setExpiresAt(now.plusMinutes(10));
+            reservationRepository.save(reservation);
+            Product product = productRepository.findById(productId).orElseThrow();
+            eventPublisher.publishEvent(new ProductChangedEvent(productId, ProductChangeType.STOCK_CHANGED, product));
+            return true;
+        });
+        return Boolean.TRUE.equals(reserved);
+    }
+
+    private Result runUntilSoldOut(Long productId, ReserveCall call) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger successes = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(pool.submit((Callable<Void>) () -> {
+                start.await();
+                while (call.reserve(productId)) {
+                    successes.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        long startedAt = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - startedAt;
+        pool.shutdown();
+        return new Result(successes.get(), elapsed);
+    }
+
+    private void assertSoldOutExactly(Long productId, Result result) {
+        Product product = productRepository.findById(productId).orElseThrow();
+        assertEquals(STOCK, result.successes(), "every unit sold exactly once");
+        assertEquals(0, product.getStock());
+        assertFalse(product.getAvailable());
+    }
+
+    private Long newHotProduct() {
+        Product product = new Product();
+        product.setName("Flash sale item");
+        product.setPrice(9.99);
+        product.setCategory("Benchmark");
+        product.setStock(STOCK);
+        product.setAvailable(true);
+        return productRepository.save(product).getId();
+    }
+
+    @FunctionalInterface
+    private interface ReserveCall {
+        boolean reserve(Long productId);
+    }
+
+    private record Result(int successes, long elapsedNanos) {
+        double perSecond() {
+            return successes * 1_000_000_000.0 / elapsedNanos;
+        }
+    }
+}
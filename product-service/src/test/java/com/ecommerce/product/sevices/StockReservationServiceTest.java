@@ -0,0 +1,89 @@
+package com.ecommerce.product.service;
+
+import com.ecommerce.product.entity.Product;
+import com.ecommerce.product.entity.StockReservation;
+import com.ecommerce.product.exception.StockReservationException;
+import com.ecommerce.product.repository.ProductRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class StockReservationServiceTest {
+
+    @Autowired
+    private StockReservationService reservationService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void releasingTheLastUnitsMakesASoldOutProductAvailableAgain() {
+        Long productId = newProduct(2, true);
+        StockReservation reservation = reservationService.reserve(productId, 2, null);
+        assertFalse(product(productId).getAvailable());
+
+        reservationService.release(reservation.getId());
+
+        assertEquals(2, product(productId).getStock());
+        assertTrue(product(productId).getAvailable());
+    }
+
+    @Test
+    void releasingDoesNotReEnableAProductMarkedUnavailable() {
+        Long productId = newProduct(5, true);
+        StockReservation reservation = reservationService.reserve(productId, 1, null);
+        Product product = product(productId);
+        product.setAvailable(false);
+        productRepository.save(product);
+
+        reservationService.release(reservation.getId());
+
+        assertEquals(5, product(productId).getStock());
+        assertFalse(product(productId).getAvailable());
+    }
+
+    @Test
+    void reservingFromAProductMarkedUnavailableIsRejected() {
+        Long productId = newProduct(5, false);
+
+        StockReservationException e = assertThrows(StockReservationException.class,
+                () -> reservationService.reserve(productId, 1, null));
+
+        assertEquals(HttpStatus.CONFLICT, e.getStatus());
+        assertEquals(5, product(productId).getStock());
+        assertFalse(product(productId).getAvailable());
+    }
+
+    @Test
+    void reservingSomeOfTheStockKeepsTheProductAvailable() {
+        Long productId = newProduct(5, true);
+
+        reservationService.reserve(productId, 3, null);
+
+        assertEquals(2, product(productId).getStock());
+        assertTrue(product(productId).getAvailable());
+    }
+
+    private Product product(Long productId) {
+        return productRepository.findById(productId).orElseThrow();
+    }
+
+    private Long newProduct(int stock, boolean available) {
+        Product product = new Product();
+        product.setName("Reservable");
+        product.setPrice(5.0);
+        product.setCategory("Test");
+        product.setStock(stock);
+        product.setAvailable(available);
+        return productRepository.save(product).getId();
+    }
+}